@@ -0,0 +1,50 @@
+package dev.wdrbork.cribbage.benchmark;
+
+import java.util.List;
+import java.util.Random;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+
+/* Builds reproducible game states for the benchmarks to start from */
+class BenchmarkGames {
+    private BenchmarkGames() {}
+
+    /**
+     * Deals a round with the given seed, has every player send their first 
+     * cards to the crib and turns over the starter card, leaving the game 
+     * ready for the first card to be played.
+     *
+     * @param numPlayers the number of players in the game
+     * @param seed the seed used to shuffle the deck
+     * @return a game at the start of the second stage of a round
+     */
+    static CribbageManager startOfPlay(int numPlayers, long seed) {
+        CribbageManager game = new CribbageManager(numPlayers);
+        game.setBackgroundPlayingHands(false);
+        game.setRandom(new Random(seed));
+        game.setDealer(0);
+        game.dealHands();
+        for (int pid = 0; pid < numPlayers; pid++) {
+            List<Card> hand = game.viewHand(pid);
+            while (hand.size() > 4) {
+                game.sendCardToCrib(pid, hand.get(0));
+            }
+        }
+        game.pickStarterCard();
+        return game;
+    }
+
+    /**
+     * Returns the first card in the given player's hand that can be played 
+     * on the current count, or null if there is none.
+     */
+    static Card firstPlayableCard(CribbageManager game, int pid) {
+        for (Card card : game.viewHand(pid)) {
+            if (game.canPlayCard(card)) {
+                return card;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package dev.wdrbork.cribbage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.MCTSAgent;
+
+/**
+ * Measures a single card selection by MCTSAgent from the start of the 
+ * second stage of a round. With one iteration this is mostly the fixed cost 
+ * of setting up a search; with the default number it is the time a 
+ * SmartPlayer spends on each card.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MCTSBenchmark {
+    @Param({ "1", "100000" })
+    public int iterations;
+
+    private CribbageManager game;
+    private int pid;
+
+    @Setup
+    public void startRound() {
+        game = BenchmarkGames.startOfPlay(2, 42);
+        pid = game.nextToPlayCard();
+    }
+
+    @Benchmark
+    public Card selectCard() {
+        return new MCTSAgent(game, pid, iterations).selectCard();
+    }
+}
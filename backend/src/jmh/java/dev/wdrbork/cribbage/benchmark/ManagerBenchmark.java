@@ -0,0 +1,64 @@
+package dev.wdrbork.cribbage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+
+/**
+ * Measures the CribbageManager operations that Monte Carlo tree search 
+ * performs on every iteration: copying a game, playing a card and undoing 
+ * it, and checking whether anybody can still play.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagerBenchmark {
+    private CribbageManager game;
+    private int pid;
+    private Card card;
+
+    @Setup
+    public void startRound() {
+        game = BenchmarkGames.startOfPlay(2, 42);
+        pid = game.nextToPlayCard();
+        card = BenchmarkGames.firstPlayableCard(game, pid);
+    }
+
+    @Benchmark
+    public CribbageManager copy() {
+        return new CribbageManager(game);
+    }
+
+    @Benchmark
+    public int[] playAndUnmake() {
+        int mark = game.mark();
+        int[] points = game.playCard(pid, card);
+        game.unmakeTo(mark);
+        return points;
+    }
+
+    @Benchmark
+    public boolean movePossible() {
+        return game.movePossible();
+    }
+
+    @Benchmark
+    public boolean hasPlayableCard() {
+        return game.hasPlayableCard(pid);
+    }
+}
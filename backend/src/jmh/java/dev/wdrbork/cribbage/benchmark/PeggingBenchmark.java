@@ -0,0 +1,58 @@
+package dev.wdrbork.cribbage.benchmark;
+
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.Rank;
+import dev.wdrbork.cribbage.logic.cards.Suit;
+import dev.wdrbork.cribbage.logic.game.CribbagePegging;
+
+/**
+ * Counts pegging runs and pairs on card stacks of increasing length. The
+ * stack is a run of consecutive ranks (the worst case for run counting),
+ * played from highest to lowest so the count never passes 31.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PeggingBenchmark {
+    @Param({ "2", "4", "6", "8" })
+    public int stackLength;
+
+    private LinkedList<Card> cardStack;
+
+    @Setup
+    public void buildStack() {
+        cardStack = new LinkedList<Card>();
+        for (int i = 0; i < stackLength; i++) {
+            Suit suit = Suit.values()[i % Suit.values().length];
+            cardStack.addFirst(new Card(suit, Rank.values()[stackLength - 1 - i]));
+        }
+    }
+
+    @Benchmark
+    public int countPegRuns() {
+        return CribbagePegging.countPegRuns(cardStack);
+    }
+
+    @Benchmark
+    public int countPegPairs() {
+        return CribbagePegging.countPegPairs(cardStack);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.wdrbork.cribbage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.StandardDeck;
+import dev.wdrbork.cribbage.logic.game.CribbageScoreTable;
+import dev.wdrbork.cribbage.logic.game.CribbageScoring;
+
+/**
+ * Scores random four-card hands with a starter card, one scoring category
+ * at a time and all at once. Each invocation scores the next of a fixed set
+ * of hands so that branch prediction cannot learn a single hand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+    private static final int NUM_HANDS = 1024;
+
+    private CribbageHand[] hands;
+    private Card[] starters;
+    private int[][] handIndices;
+    private int[] starterIndices;
+    private int next;
+
+    @Setup
+    public void dealHands() {
+        hands = new CribbageHand[NUM_HANDS];
+        starters = new Card[NUM_HANDS];
+        handIndices = new int[NUM_HANDS][];
+        starterIndices = new int[NUM_HANDS];
+        for (int i = 0; i < NUM_HANDS; i++) {
+            StandardDeck deck = new StandardDeck(true);
+            hands[i] = new CribbageHand();
+            for (int j = 0; j < 4; j++) {
+                hands[i].addCard(deck.takeTopCard());
+            }
+            starters[i] = deck.takeTopCard();
+            handIndices[i] = CardMask.indicesOf(hands[i]);
+            starterIndices[i] = CardMask.indexOf(starters[i]);
+        }
+    }
+
+    private int advance() {
+        next = (next + 1) & (NUM_HANDS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int fifteens() {
+        int i = advance();
+        return CribbageScoring.count15Combos(hands[i], starters[i]);
+    }
+
+    @Benchmark
+    public int runs() {
+        int i = advance();
+        return CribbageScoring.countRuns(hands[i], starters[i]);
+    }
+
+    @Benchmark
+    public int pairs() {
+        int i = advance();
+        return CribbageScoring.countPairs(hands[i], starters[i]);
+    }
+
+    @Benchmark
+    public int flush() {
+        int i = advance();
+        return CribbageScoring.countFlush(hands[i], starters[i], false);
+    }
+
+    @Benchmark
+    public int nobs() {
+        int i = advance();
+        return CribbageScoring.countNobs(hands[i], starters[i]);
+    }
+
+    @Benchmark
+    public int[] combined() {
+        int i = advance();
+        return hands[i].countCribbageHand(starters[i], false);
+    }
+
+    @Benchmark
+    public int scoreTable() {
+        int i = advance();
+        return CribbageScoreTable.score(handIndices[i], starterIndices[i], false);
+    }
+}
@@ -0,0 +1,54 @@
+package dev.wdrbork.cribbage.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+/**
+ * Measures how long SmartPlayer takes to choose which cards to keep from a 
+ * freshly dealt hand, in two- and three-player games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmartPlayerBenchmark {
+    @Param({ "2", "3" })
+    public int numPlayers;
+
+    private SmartPlayer player;
+    private CribbageHand dealt;
+
+    @Setup
+    public void deal() {
+        CribbageManager game = new CribbageManager(numPlayers);
+        game.setBackgroundPlayingHands(false);
+        game.setRandom(new Random(42));
+        game.setDealer(0);
+        game.dealHands();
+        player = new SmartPlayer(game, 1);
+        dealt = game.getHand(1);
+    }
+
+    @Benchmark
+    public CribbageHand choosePlayingHand() {
+        return player.choosePlayingHand(dealt, false);
+    }
+}
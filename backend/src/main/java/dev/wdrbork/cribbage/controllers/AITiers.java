@@ -0,0 +1,22 @@
+package dev.wdrbork.cribbage.controllers;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.wdrbork.cribbage.logic.game.ai.AITierPolicy;
+
+/**
+ * Sets up the policy that scales the AI's work to the server's load (see
+ * AITierPolicy). Its thresholds and budgets are read from the cribbage.ai.*
+ * properties, e.g. cribbage.ai.reduced-queue-depth, and every game the
+ * controller creates uses it.
+ */
+@Configuration
+public class AITiers {
+    @Bean
+    @ConfigurationProperties(prefix = "cribbage.ai")
+    public AITierPolicy aiTierPolicy() {
+        return new AITierPolicy();
+    }
+}
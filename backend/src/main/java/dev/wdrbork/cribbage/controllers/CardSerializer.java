@@ -0,0 +1,41 @@
+package dev.wdrbork.cribbage.controllers;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+
+/**
+ * Writes a card without reflection. In JSON, a card has the same fields the 
+ * frontend has always received. In binary formats such as CBOR, a card is 
+ * only its ID (see Card.getCardId()), which always fits in 6 bits, since the 
+ * other fields can be derived from it.
+ */
+public class CardSerializer extends StdSerializer<Card> {
+    private static final long serialVersionUID = 1L;
+
+    public CardSerializer() {
+        super(Card.class);
+    }
+
+    @Override
+    public void serialize(Card card, JsonGenerator gen, SerializerProvider provider) 
+            throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            gen.writeNumber(card.getCardId());
+            return;
+        }
+
+        gen.writeStartObject();
+        gen.writeStringField("suit", card.getSuit().name());
+        gen.writeStringField("rank", card.getRank().name());
+        gen.writeNumberField("value", card.getValue());
+        gen.writeNumberField("rankValue", card.getRankValue());
+        gen.writeNumberField("suitValue", card.getSuitValue());
+        gen.writeNumberField("cardId", card.getCardId());
+        gen.writeEndObject();
+    }
+}
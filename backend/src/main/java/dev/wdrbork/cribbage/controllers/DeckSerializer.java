@@ -0,0 +1,49 @@
+package dev.wdrbork.cribbage.controllers;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+
+/**
+ * Writes a deck or hand without reflection. In JSON, a deck has the same 
+ * fields the frontend has always received. In binary formats such as CBOR, 
+ * a deck is only the array of its cards' IDs.
+ */
+public class DeckSerializer extends StdSerializer<Deck> {
+    private static final long serialVersionUID = 1L;
+
+    private final CardSerializer cardSerializer = new CardSerializer();
+
+    public DeckSerializer() {
+        super(Deck.class);
+    }
+
+    @Override
+    public void serialize(Deck deck, JsonGenerator gen, SerializerProvider provider) 
+            throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            writeCards(deck, gen, provider);
+            return;
+        }
+
+        gen.writeStartObject();
+        gen.writeFieldName("cards");
+        writeCards(deck, gen, provider);
+        gen.writeBooleanField("empty", deck.isEmpty());
+        gen.writeEndObject();
+    }
+
+    private void writeCards(Deck deck, JsonGenerator gen, SerializerProvider provider) 
+            throws IOException {
+        gen.writeStartArray(deck, deck.size());
+        for (Card card : deck.getCards()) {
+            cardSerializer.serialize(card, gen, provider);
+        }
+        gen.writeEndArray();
+    }
+}
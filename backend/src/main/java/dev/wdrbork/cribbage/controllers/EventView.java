@@ -0,0 +1,35 @@
+package dev.wdrbork.cribbage.controllers;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import dev.wdrbork.cribbage.logic.game.GameEvent;
+import lombok.Getter;
+
+/**
+ * A compact form of a GameEvent sent to clients, with cards given by ID. 
+ * Fields that do not apply to an event are left out.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventView {
+    private GameEvent.Type type;
+    private long version;
+    private int pid;
+    private Integer cardId;
+    private Integer points;
+    private int[] categories;
+
+    /**
+     * @param event the event to describe
+     * @param withCategories true to include where the event's points came 
+     *                       from, when it has them
+     */
+    public EventView(GameEvent event, boolean withCategories) {
+        this.type = event.type();
+        this.version = event.version();
+        this.pid = event.pid();
+        this.cardId = event.card() == null ? null : event.card().getCardId();
+        this.points = event.points() == 0 ? null : event.points();
+        this.categories = withCategories ? event.categories() : null;
+    }
+}
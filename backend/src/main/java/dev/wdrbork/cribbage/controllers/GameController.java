@@ -1,133 +1,353 @@
 package dev.wdrbork.cribbage.controllers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import jakarta.annotation.PostConstruct;
 
 import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
 import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.GameEvent;
+import dev.wdrbork.cribbage.logic.game.HandDistribution;
+import dev.wdrbork.cribbage.logic.game.MoveResult;
+import dev.wdrbork.cribbage.logic.game.ai.AITierPolicy;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardCoach;
+import dev.wdrbork.cribbage.logic.game.ai.KeepEvaluation;
+import dev.wdrbork.cribbage.logic.metrics.GameEvictedEvent;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 
-@CrossOrigin(origins = GameController.FRONTEND_URL)
+@CrossOrigin(origins = GameController.FRONTEND_URL, exposedHeaders = HttpHeaders.ETAG)
 @Controller
 @RequestMapping("api/v1/game")
 public class GameController {
     public static final String FRONTEND_URL = "http://localhost:3000";
 
+    // The player controlled by the frontend; every other player is an AI
+    private static final int USER_ID = 0;
+
+    // Number of recent events kept for clients catching up with getChanges
+    private static final int EVENT_LOG_CAPACITY = 256;
+
     @Autowired
-    private CribbageManager game;
+    private AITierPolicy aiTierPolicy;
+
+    // The game being played, replaced as a whole when the game is reset so 
+    // that a game is never paired with another game's number
+    private volatile ActiveGame active;
+
+    // Held by every endpoint while it uses the game (see withActiveGame())
+    private final Object lock = new Object();
+
+    private final GameEventBroadcaster broadcaster = new GameEventBroadcaster();
+
+    // The endpoints that can be run in a batch, by path
+    private final Map<String, Function<Map<String, Integer>, ResponseEntity<Object>>> 
+            commands = batchCommands();
+
+    @Autowired
+    public GameController(CribbageManager game) {
+        this.active = new ActiveGame(game, 0);
+    }
+
+    @PostConstruct
+    public void setUpGame() {
+        setUp(active);
+    }
+
+    /* Connects a new game to the AI tier policy and to the event stream */
+    private void setUp(ActiveGame current) {
+        current.game.setAITierPolicy(aiTierPolicy);
+        current.game.recordEvents(EVENT_LOG_CAPACITY);
+        current.game.eventLog().addListener(
+                event -> broadcaster.publish(current.number, event));
+    }
+
+    /* Runs the given action on the current game while holding the lock. 
+       Every endpoint goes through here, so no request sees the game 
+       partway through another, and the game cannot be reset while an 
+       action is using it */
+    private <T> T withActiveGame(Function<ActiveGame, T> action) {
+        synchronized (lock) {
+            return action.apply(active);
+        }
+    }
+
+    private <T> T withGame(Function<CribbageManager, T> action) {
+        return withActiveGame(current -> action.apply(current.game));
+    }
 
     /**************************************************************************
     * GAME DATA
     **************************************************************************/
+    /**
+     * Returns everything the frontend displays about the game in one 
+     * response. The ETag identifies the version of the game state, so a 
+     * request with a matching If-None-Match header gets an empty 304 
+     * response if nothing has changed.
+     */
+    @GetMapping("/getSnapshot")
+    public ResponseEntity<Object> snapshot(WebRequest request) {
+        return withActiveGame(current -> {
+            String etag = "\"" + stateToken(current) + "\"";
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
+            return ResponseEntity.ok().eTag(etag).body(new GameSnapshot(current.game));
+        });
+    }
+
+    /**
+     * Returns what has happened in the game since the state identified by 
+     * the given token, which comes from an earlier call or from the ETag of 
+     * getSnapshot. If the game has changed too much since then, a full 
+     * snapshot is returned instead of events.
+     */
+    @GetMapping("/getChanges")
+    public ResponseEntity<Object> changes(@RequestParam String since) {
+        return withActiveGame(current -> {
+            CribbageManager game = current.game;
+            List<GameEvent> events = null;
+            String[] parts = since.replace("\"", "").split("\\.");
+            try {
+                long sinceVersion = Long.parseLong(parts[parts.length - 1]);
+                if (parts.length == 2 && Long.parseLong(parts[0]) == current.number
+                        && sinceVersion <= game.version()
+                        && game.eventLog() != null) {
+                    events = game.eventLog().since(sinceVersion);
+                }
+            } catch (NumberFormatException e) {
+                return new ResponseEntity<>(
+                    "Invalid state token: " + since, 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+
+            return new ResponseEntity<>(
+                new GameChanges(stateToken(current), game, events), 
+                HttpStatus.OK
+            );
+        });
+    }
+
+    /**
+     * Opens a stream of server-sent events that reports everything that 
+     * happens in the game from now on (see GameEvent.Type). Each event's ID
+     * is a state token that can be passed to getChanges. When the game is 
+     * reset, a RESYNC event is sent.
+     */
+    @GetMapping(path = "/streamEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents() {
+        return broadcaster.subscribe();
+    }
+
     @PostMapping("/getCount")
     public ResponseEntity<Object> getCount() {
-        return new ResponseEntity<>(
+        return withGame(game -> new ResponseEntity<>(
             String.valueOf(game.count()), 
             HttpStatus.OK
-        );
+        ));
     }
 
     @PostMapping("/getAllHands")
     public ResponseEntity<Object> getAllHands() {
-        return new ResponseEntity<>(game.getAllHands(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.getAllHands(), HttpStatus.OK));
     }
 
     @PostMapping("/getPlayedCards")
     public ResponseEntity<Object> getPlayedCards() {
-        return new ResponseEntity<>(game.getPlayedCards(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.getPlayedCards(), HttpStatus.OK));
     }
 
     @PostMapping("/getNumberOfPlayers")
     public ResponseEntity<Object> numPlayers() {
-        return new ResponseEntity<>(
+        return withGame(game -> new ResponseEntity<>(
             String.valueOf(game.numPlayers()), 
             HttpStatus.OK
-        );
+        ));
     }
 
     @PostMapping("/getPreviousPlayer")
     public ResponseEntity<Object> lastToPlayCard() {
-        return new ResponseEntity<>(
+        return withGame(game -> new ResponseEntity<>(
             String.valueOf(game.lastToPlayCard()), 
             HttpStatus.OK
-        );
+        ));
     }
 
     @PostMapping("/getNextPlayer")
     public ResponseEntity<Object> nextToPlayCard() {
-        return new ResponseEntity<>(
+        return withGame(game -> new ResponseEntity<>(
             game.nextToPlayCard(), 
             HttpStatus.OK
-        );
+        ));
     }
 
     @PostMapping("/getDealer")
     public ResponseEntity<Object> dealer() {
-        return new ResponseEntity<>(
+        return withGame(game -> new ResponseEntity<>(
             String.valueOf(game.dealer()), 
             HttpStatus.OK
-        );
+        ));
     }
 
     @PostMapping("/getScores")
     public ResponseEntity<Object> gameScores() {
-        return new ResponseEntity<>(
+        return withGame(game -> new ResponseEntity<>(
             game.gameScores(), 
             HttpStatus.OK
-        );
+        ));
     }
 
     @PostMapping("/getPlayerScore")
     public ResponseEntity<Object> playerScore(@RequestBody Map<String, Integer> json) {
-        try {
-            int pid = json.get("pid");
-            return new ResponseEntity<>(
-                String.valueOf(game.getPlayerScore(pid)), 
-                HttpStatus.OK
-            );
-        } catch (Exception e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                return new ResponseEntity<>(
+                    String.valueOf(game.getPlayerScore(pid)), 
+                    HttpStatus.OK
+                );
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
     }
 
     @PostMapping("/getPlayerHand")
     public ResponseEntity<Object> playerHand(@RequestBody Map<String, Integer> json) {
-        try {
-            int pid = json.get("pid");
-            return new ResponseEntity<>(
-                game.getHand(pid), 
-                HttpStatus.OK
-            );
-        } catch (Exception e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                return new ResponseEntity<>(
+                    game.getHand(pid), 
+                    HttpStatus.OK
+                );
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
     }
 
     @PostMapping("/getCrib")
     public ResponseEntity<Object> getCrib() {
-        return new ResponseEntity<>(game.getCrib(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.getCrib(), HttpStatus.OK));
+    }
+
+    /**
+     * Returns how the given player's four-card hand would score with each 
+     * starter card that player cannot see.
+     */
+    @PostMapping("/getHandDistribution")
+    public ResponseEntity<Object> handDistribution(@RequestBody Map<String, Integer> json) {
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                CribbageHand hand = game.getHand(pid);
+                return new ResponseEntity<>(
+                    new ScoreDistribution(hand.getCards(), HandDistribution.of(
+                        CardMask.maskOf(hand), game.discardMask(pid), false)), 
+                    HttpStatus.OK
+                );
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
+    }
+
+    /**
+     * Returns how the crib would score with each starter card that the 
+     * given player cannot see.
+     */
+    @PostMapping("/getCribDistribution")
+    public ResponseEntity<Object> cribDistribution(@RequestBody Map<String, Integer> json) {
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                CribbageHand crib = game.getCrib();
+                return new ResponseEntity<>(
+                    new ScoreDistribution(crib.getCards(), HandDistribution.of(
+                        CardMask.maskOf(crib), CardMask.maskOf(game.getHand(pid)), 
+                        true)), 
+                    HttpStatus.OK
+                );
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
+    }
+
+    /**
+     * Returns every keep of the given player's dealt hand with its expected 
+     * hand, crib, and overall value, best overall value first. Each keep is 
+     * also ranked by hand value alone and by crib value alone (from the 
+     * player's point of view, so a low crib value ranks first for a player 
+     * who does not own the crib).
+     */
+    @PostMapping("/getDiscardAdvice")
+    public ResponseEntity<Object> discardAdvice(@RequestBody Map<String, Integer> json) {
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                boolean isDealer = game.dealer() == pid;
+                List<KeepEvaluation> evaluations = DiscardCoach.getDefault()
+                        .evaluate(game.getHand(pid), isDealer);
+                List<KeepAdvice> advice = new ArrayList<>();
+                for (KeepEvaluation evaluation : evaluations) {
+                    advice.add(new KeepAdvice(evaluation, evaluations, isDealer));
+                }
+                return new ResponseEntity<>(advice, HttpStatus.OK);
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
     }
 
     @PostMapping("/getLastCard")
     public ResponseEntity<Object> lastPlayedCard() {
-        return new ResponseEntity<>(game.getLastPlayedCard(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.getLastPlayedCard(), HttpStatus.OK));
     }
 
     /**************************************************************************
@@ -135,86 +355,96 @@ public class GameController {
     **************************************************************************/
     @PostMapping("/pickDealerCard")
     public ResponseEntity<Object> pickCardForDealer() {
-        return new ResponseEntity<>(game.pickCardForDealer(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.pickCardForDealer(), HttpStatus.OK));
     }
 
     @PostMapping("/setDealer")
     public ResponseEntity<Object> setDealer(@RequestBody Map<String, Integer> json) {
-        try {
-            int pid = json.get("pid");
-            game.setDealer(pid);
-            return dealer();
-        } catch (Exception e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                game.setDealer(pid);
+                return dealer();
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
     }
 
     @PostMapping("/dealHands")
     public ResponseEntity<Object> dealHands() {
-        try {
-            return new ResponseEntity<>(game.dealHands(), HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        }
+        return withGame(game -> {
+            try {
+                return new ResponseEntity<>(game.dealHands(), HttpStatus.OK);
+            } catch (Exception e) {
+                return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+        });
     }
 
     @PostMapping("/selectAIHands")
     public ResponseEntity<Object> selectAIHands() {
-        List<Card> cribCards = game.chooseAIPlayingHands();
-        return new ResponseEntity<>(cribCards, HttpStatus.OK);
+        return withGame(game -> {
+            List<Card> cribCards = game.chooseAIPlayingHands();
+            return new ResponseEntity<>(cribCards, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/moveCardToCrib")
     public ResponseEntity<Object> cribCard(@RequestBody Map<String, Integer> json) {
-        Card card;
-        int pid = json.get("pid");
-        int suitId = json.get("suitId");
-        int rankId = json.get("rankId");
-        try {
-            card = new Card(
-                Integer.valueOf(suitId), 
-                Integer.valueOf(rankId)
-            );
-        } catch (Exception e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        return withGame(game -> {
+            Card card;
+            int pid = json.get("pid");
+            int suitId = json.get("suitId");
+            int rankId = json.get("rankId");
+            try {
+                card = new Card(
+                    Integer.valueOf(suitId), 
+                    Integer.valueOf(rankId)
+                );
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+
+            MoveResult result = game.trySendCardToCrib(pid, card);
+            if (result != MoveResult.OK) {
+                return moveRejected(result);
+            }
 
-        try {
-            game.sendCardToCrib(Integer.valueOf(pid), card);
             return new ResponseEntity<>(
                 "Moved " + card + " to crib from player " + pid, 
                 HttpStatus.OK
             );
-        } catch (NullPointerException e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.INTERNAL_SERVER_ERROR
-            );
-        } catch (IllegalArgumentException | IllegalStateException e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        });
     }
 
     @PostMapping("/pickStarterCard")
     public ResponseEntity<Object> pickStarterCard() {
-        try {
-            return new ResponseEntity<>(game.pickStarterCard(), HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        }
+        return withGame(game -> {
+            try {
+                return new ResponseEntity<>(game.pickStarterCard(), HttpStatus.OK);
+            } catch (Exception e) {
+                return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+        });
     }
 
+    /**
+     * Plays the given card. With autoPlay, the AI then takes every turn until 
+     * the user must play again or the round is over, and the count is reset 
+     * whenever nobody can play. The response then lists each play and reset 
+     * in order, starting with the user's card, along with the state of the 
+     * game afterwards.
+     */
     @PostMapping("/playCard")
-    public ResponseEntity<Object> playCard(@RequestBody Map<String, Integer> json) {
+    public ResponseEntity<Object> playCard(@RequestBody Map<String, Integer> json, 
+            @RequestParam(defaultValue = "false") boolean autoPlay) {
         Card card;
         int pid = json.get("pid");
         int suitId = json.get("suitId");
@@ -231,34 +461,78 @@ public class GameController {
             );
         }
 
-        try {
-            int[] points = game.playCard(Integer.valueOf(pid), card);
-            return new ResponseEntity<>(new PlayResult(card, points), HttpStatus.OK);
-        } catch (NullPointerException e) {
+        if (autoPlay && pid != USER_ID) {
             return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.INTERNAL_SERVER_ERROR
-            );
-        } catch (IllegalArgumentException e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.OK
+                "Only the user's plays can be followed by AI plays", 
+                HttpStatus.BAD_REQUEST
             );
-        } catch (IllegalStateException e) {
+        }
+
+        try {
+            return withGame(game -> {
+                int[] points = new int[CribbageManager.ROUND_POINT_CATEGORIES];
+                MoveResult result = game.tryPlayCard(pid, card, points);
+                if (result != MoveResult.OK) {
+                    return moveRejected(result);
+                } else if (!autoPlay) {
+                    return new ResponseEntity<>(new PlayResult(card, points), HttpStatus.OK);
+                }
+
+                List<PegStep> plays = new ArrayList<>();
+                plays.add(new PegStep(pid, card, points, game.count()));
+                return new ResponseEntity<>(
+                    continuePegging(game, plays), 
+                    HttpStatus.OK
+                );
+            });
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Only the AI's plays can throw
             return new ResponseEntity<>(
                 e.getMessage(), 
-                HttpStatus.BAD_REQUEST
+                HttpStatus.INTERNAL_SERVER_ERROR
             );
         }
     }
 
+    /* Describes a refused move. A move that the game's current state does 
+       not allow is a conflict, while a malformed one is a bad request */
+    private ResponseEntity<Object> moveRejected(MoveResult result) {
+        HttpStatus status = result == MoveResult.INVALID_PLAYER 
+                || result == MoveResult.NO_CARD 
+                ? HttpStatus.BAD_REQUEST : HttpStatus.CONFLICT;
+        return new ResponseEntity<>(new MoveRejection(result), status);
+    }
+
     @PostMapping("/playAICard")
     public ResponseEntity<Object> playAICard(@RequestBody Map<String, Integer> json) {
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                Card card = game.chooseAICard(pid);
+                int[] points = game.playCard(pid, card);
+                return new ResponseEntity<>(new PlayResult(card, points), HttpStatus.OK);
+            } catch (Exception e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
+    }
+
+    /**
+     * Lets the AI take every turn until the user must play or the round is 
+     * over, resetting the count whenever nobody can play. This is how a 
+     * round starts when the AI leads; afterwards, playCard with autoPlay 
+     * does the same after each of the user's cards.
+     */
+    @PostMapping("/playAITurns")
+    public ResponseEntity<Object> playAITurns() {
         try {
-            int pid = json.get("pid");
-            Card card = game.chooseAICard(pid);
-            int[] points = game.playCard(pid, card);
-            return new ResponseEntity<>(new PlayResult(card, points), HttpStatus.OK);
+            return withGame(game -> new ResponseEntity<>(
+                continuePegging(game, new ArrayList<>()), 
+                HttpStatus.OK
+            ));
         } catch (Exception e) {
             return new ResponseEntity<>(
                 e.getMessage(), 
@@ -267,86 +541,306 @@ public class GameController {
         }
     }
 
+    /* Plays the AI's turns and resets the count as needed until the user 
+       must act, adding each step to the given list */
+    private PeggingResult continuePegging(CribbageManager current, List<PegStep> plays) {
+        while (!current.roundOver()) {
+            if (!current.movePossible()) {
+                // Any point for the go was awarded with the last card played
+                current.resetCount();
+                plays.add(new PegStep(current.count()));
+                continue;
+            }
+
+            int pid = current.nextToPlayCard();
+            if (pid == USER_ID) {
+                break;
+            }
+
+            Card card = current.chooseAICard(pid);
+            int[] points = current.playCard(pid, card);
+            plays.add(new PegStep(pid, card, points, current.count()));
+        }
+
+        return new PeggingResult(plays, current);
+    }
+
     @PostMapping("/isMovePossible")
     public ResponseEntity<Object> movePossible() {
-        return new ResponseEntity<>(game.movePossible(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.movePossible(), HttpStatus.OK));
     }
 
     @PostMapping("/resetCount")
     public ResponseEntity<Object> resetCount() {
-        game.resetCount();
-        return new ResponseEntity<>(
-            "Count has been reset to 0", 
-            HttpStatus.OK
-        );
+        return withGame(game -> {
+            game.resetCount();
+            return new ResponseEntity<>(
+                "Count has been reset to 0", 
+                HttpStatus.OK
+            );
+        });
     }
 
     @PostMapping("/isRoundOver")
     public ResponseEntity<Object> roundOver() {
-        return new ResponseEntity<>(game.roundOver(), HttpStatus.OK);
+        return withGame(game -> new ResponseEntity<>(game.roundOver(), HttpStatus.OK));
     }
 
     @PostMapping("/countHand")
     public ResponseEntity<Object> countHand(@RequestBody Map<String, Integer> json) {
-        try {
-            int pid = json.get("pid");
-            int[] scores = game.countHand(Integer.valueOf(pid));
-            return new ResponseEntity<>(scores, HttpStatus.OK);
-        } catch (IllegalArgumentException e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                int[] scores = game.countHand(Integer.valueOf(pid));
+                return new ResponseEntity<>(scores, HttpStatus.OK);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
     }
 
     @PostMapping("/countCrib")
     public ResponseEntity<Object> countCrib() {
-        try {
-            int[] scores = game.countCrib();
-            return new ResponseEntity<>(scores, HttpStatus.OK);
-        } catch (IllegalStateException e) {
-            return new ResponseEntity<>(
-                e.getMessage(), 
-                HttpStatus.BAD_REQUEST
-            );
-        }
+        return withGame(game -> {
+            try {
+                int[] scores = game.countCrib();
+                return new ResponseEntity<>(scores, HttpStatus.OK);
+            } catch (IllegalStateException e) {
+                return new ResponseEntity<>(
+                    e.getMessage(), 
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        });
     }
 
     @PostMapping("/isWinner")
     public ResponseEntity<Object> winner(@RequestBody Map<String, Integer> json) {
-        try {
-            int pid = json.get("pid");
-            return new ResponseEntity<>(
-                game.isWinner(Integer.valueOf(pid)), 
-                HttpStatus.OK
-            );
-        } catch (IllegalArgumentException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        }
+        return withGame(game -> {
+            try {
+                int pid = json.get("pid");
+                return new ResponseEntity<>(
+                    game.isWinner(Integer.valueOf(pid)), 
+                    HttpStatus.OK
+                );
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+        });
     }
 
     @PostMapping("/clearRound")
     public ResponseEntity<Object> clearRoundState() {
-        game.clearRoundState();
-        return new ResponseEntity<>("Round state cleared", HttpStatus.OK);
+        return withGame(game -> {
+            game.clearRoundState();
+            return new ResponseEntity<>("Round state cleared", HttpStatus.OK);
+        });
     }
 
     @PostMapping("/resetDeck")
     public ResponseEntity<Object> resetDeck() {
-        game.resetDeck();
-        return new ResponseEntity<>(HttpStatus.OK);
+        return withGame(game -> {
+            game.resetDeck();
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
     }
 
     @PostMapping("/resetGame")
     public ResponseEntity<Object> resetGame() {
-        game = new CribbageManager();
+        // Waits for any request using the old game to finish
+        withActiveGame(current -> {
+            CribbageManager game = current.game;
+            GameEvictedEvent evicted = new GameEvictedEvent();
+            if (evicted.isEnabled()) {
+                evicted.gameId = game.id();
+                evicted.version = game.version();
+                evicted.scores = Arrays.toString(game.gameScores());
+                evicted.finished = game.gameOver();
+                evicted.commit();
+            }
+
+            ActiveGame next = new ActiveGame(new CribbageManager(), current.number + 1);
+            setUp(next);
+            active = next;
+            broadcaster.publish(next.number, new GameEvent(GameEvent.Type.RESYNC, 
+                    next.game.version(), -1, null, 0));
+            return null;
+        });
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    /**
+     * Runs a list of commands in order while holding the lock that every 
+     * endpoint holds, so that no other request sees the game partway 
+     * through the batch and the game cannot be reset during it. 
+     * Each command names one of the endpoints above by its path (e.g. 
+     * "playCard") and gives the same arguments that endpoint takes in its 
+     * request body. The batch stops at the first command that fails, and 
+     * commands before it stay applied.
+     * 
+     * The response holds the result of every command that was run, with the 
+     * status and body its endpoint would have returned. Its status is OK if 
+     * every command succeeded and the failed command's status otherwise.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Object> batch(@RequestBody List<BatchCommand> batch) {
+        // The lock is reentrant, so each command takes it again
+        return withGame(game -> {
+            List<BatchResult> results = new ArrayList<>();
+            for (BatchCommand command : batch) {
+                ResponseEntity<Object> response = runCommand(command);
+                results.add(new BatchResult(command.getCommand(), response));
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    return new ResponseEntity<>(results, response.getStatusCode());
+                }
+            }
+
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        });
+    }
+
+    private ResponseEntity<Object> runCommand(BatchCommand command) {
+        Function<Map<String, Integer>, ResponseEntity<Object>> endpoint = 
+                commands.get(command.getCommand());
+        if (endpoint == null) {
+            return new ResponseEntity<>(
+                "Unknown command: " + command.getCommand(), 
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        Map<String, Integer> args = command.getArgs() == null 
+                ? new HashMap<>() : command.getArgs();
+        try {
+            return endpoint.apply(args);
+        } catch (Exception e) {
+            // Some endpoints read their arguments before catching exceptions
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private Map<String, Function<Map<String, Integer>, ResponseEntity<Object>>> batchCommands() {
+        Map<String, Function<Map<String, Integer>, ResponseEntity<Object>>> commands = 
+                new HashMap<>();
+        commands.put("getCount", args -> getCount());
+        commands.put("getAllHands", args -> getAllHands());
+        commands.put("getPlayedCards", args -> getPlayedCards());
+        commands.put("getNumberOfPlayers", args -> numPlayers());
+        commands.put("getPreviousPlayer", args -> lastToPlayCard());
+        commands.put("getNextPlayer", args -> nextToPlayCard());
+        commands.put("getDealer", args -> dealer());
+        commands.put("getScores", args -> gameScores());
+        commands.put("getPlayerScore", this::playerScore);
+        commands.put("getPlayerHand", this::playerHand);
+        commands.put("getCrib", args -> getCrib());
+        commands.put("getLastCard", args -> lastPlayedCard());
+        commands.put("pickDealerCard", args -> pickCardForDealer());
+        commands.put("setDealer", this::setDealer);
+        commands.put("dealHands", args -> dealHands());
+        commands.put("selectAIHands", args -> selectAIHands());
+        commands.put("moveCardToCrib", this::cribCard);
+        commands.put("pickStarterCard", args -> pickStarterCard());
+        commands.put("playAICard", this::playAICard);
+        commands.put("playAITurns", args -> playAITurns());
+        commands.put("isMovePossible", args -> movePossible());
+        commands.put("resetCount", args -> resetCount());
+        commands.put("isRoundOver", args -> roundOver());
+        commands.put("countHand", this::countHand);
+        commands.put("countCrib", args -> countCrib());
+        commands.put("isWinner", this::winner);
+        commands.put("clearRound", args -> clearRoundState());
+        commands.put("resetDeck", args -> resetDeck());
+
+        commands.put("playCard", args -> playCard(args, false));
+        return commands;
+    }
+
+    /* Returns 1 if the game has started and is not over, 0 otherwise */
+    int activeGames() {
+        CribbageManager game = active.game;
+        return game.dealer() >= 0 && !game.gameOver() ? 1 : 0;
+    }
+
+    /* Returns the number of clients streaming events */
+    int subscribers() {
+        return broadcaster.subscribers();
+    }
+
+    /* Identifies the current state of the given game */
+    private String stateToken(ActiveGame current) {
+        return current.number + "." + current.game.version();
+    }
+
     /**************************************************************************
     * UTILITY CLASSES
     **************************************************************************/
+    /* A game and its number, which is incremented whenever the game is 
+       replaced so that versions of the new game are not mistaken for 
+       versions of the old one */
+    private static class ActiveGame {
+        private final CribbageManager game;
+        private final long number;
+
+        ActiveGame(CribbageManager game, long number) {
+            this.game = game;
+            this.number = number;
+        }
+    }
+
+    /* Either the events since a client's version, or a full snapshot */
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private class GameChanges {
+        private String token;
+        private Integer count;
+        private Integer nextPlayer;
+        private int[] scores;
+        private List<EventView> events;
+        private GameSnapshot snapshot;
+
+        GameChanges(String token, CribbageManager current, List<GameEvent> events) {
+            this.token = token;
+            if (events == null) {
+                this.snapshot = new GameSnapshot(current);
+                return;
+            }
+
+            this.count = current.count();
+            this.nextPlayer = current.nextToPlayCard();
+            this.scores = current.gameScores();
+            this.events = new ArrayList<>();
+            for (GameEvent event : events) {
+                this.events.add(new EventView(event, false));
+            }
+        }
+    }
+
+    /* One command in a batch request */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    static class BatchCommand {
+        private String command;
+        private Map<String, Integer> args;
+    }
+
+    /* The outcome of one command in a batch */
+    @Getter
+    private class BatchResult {
+        private String command;
+        private int status;
+        private Object body;
+
+        BatchResult(String command, ResponseEntity<Object> response) {
+            this.command = command;
+            this.status = response.getStatusCode().value();
+            this.body = response.getBody();
+        }
+    }
+
     @AllArgsConstructor
     @EqualsAndHashCode
     private class PlayResult {
@@ -356,4 +850,106 @@ public class GameController {
         @Getter
         private int[] pointsEarned;
     }
+
+    /* Why a move was refused */
+    @Getter
+    private class MoveRejection {
+        private MoveResult result;
+        private String message;
+
+        MoveRejection(MoveResult result) {
+            this.result = result;
+            this.message = result.message();
+        }
+    }
+
+    /* One card played or count reset during automatic pegging */
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private class PegStep {
+        private GameEvent.Type type;
+        private Integer pid;
+        private Card playedCard;
+        private int[] pointsEarned;
+        private int count;
+
+        PegStep(int pid, Card playedCard, int[] pointsEarned, int count) {
+            this.type = GameEvent.Type.CARD_PLAYED;
+            this.pid = pid;
+            this.playedCard = playedCard;
+            this.pointsEarned = pointsEarned;
+            this.count = count;
+        }
+
+        PegStep(int count) {
+            this.type = GameEvent.Type.COUNT_RESET;
+            this.count = count;
+        }
+    }
+
+    /* The plays made during automatic pegging and where they left the game */
+    @Getter
+    private class PeggingResult {
+        private List<PegStep> plays;
+        private int count;
+        private int nextPlayer;
+        private boolean roundOver;
+        private int[] scores;
+
+        PeggingResult(List<PegStep> plays, CribbageManager current) {
+            this.plays = plays;
+            this.count = current.count();
+            this.nextPlayer = current.nextToPlayCard();
+            this.roundOver = current.roundOver();
+            this.scores = current.gameScores();
+        }
+    }
+
+    @Getter
+    private class KeepAdvice {
+        private List<Card> keep;
+        private List<Card> discards;
+        private double handValue;
+        private double cribValue;
+        private double value;
+        private boolean exact;
+        private int handRank;
+        private int cribRank;
+
+        KeepAdvice(KeepEvaluation evaluation, List<KeepEvaluation> all, 
+                boolean isDealer) {
+            this.keep = evaluation.getKeep().getCards();
+            this.discards = evaluation.getDiscards().getCards();
+            this.handValue = evaluation.getHandValue();
+            this.cribValue = evaluation.getCribValue();
+            this.value = evaluation.getValue();
+            this.exact = evaluation.isExact();
+
+            // Ranks start at 1, and keeps with equal values share a rank
+            this.handRank = 1;
+            this.cribRank = 1;
+            for (KeepEvaluation other : all) {
+                if (other.getHandValue() > handValue) handRank++;
+                if (isDealer ? other.getCribValue() > cribValue 
+                        : other.getCribValue() < cribValue) cribRank++;
+            }
+        }
+    }
+
+    @Getter
+    private class ScoreDistribution {
+        private List<Card> cards;
+        private int starters;
+        private int[] counts;
+        private double mean;
+        private double variance;
+
+        ScoreDistribution(List<Card> cards, HandDistribution distribution) {
+            this.cards = cards;
+            this.starters = distribution.starters();
+            this.counts = distribution.counts();
+            this.mean = distribution.mean();
+            this.variance = distribution.variance();
+        }
+    }
 }
\ No newline at end of file
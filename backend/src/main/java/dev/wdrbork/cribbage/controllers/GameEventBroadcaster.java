@@ -0,0 +1,151 @@
+package dev.wdrbork.cribbage.controllers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import dev.wdrbork.cribbage.logic.game.GameEvent;
+
+/**
+ * Pushes game events to every client that has subscribed to them with
+ * server-sent events. Streams are held open with asynchronous requests, so
+ * they do not occupy servlet threads.
+ *
+ * Each stream has its own bounded queue of events, written out by a
+ * background thread that only works on that stream while it has events
+ * waiting, so a slow client only holds up its own stream, and the thread
+ * that changed the game only ever adds to the queues and never waits on a
+ * client. Streams that fall more than MAX_PENDING_EVENTS behind are closed
+ * rather than buffered; like streams that fail or time out, they are
+ * dropped, and the client can reconnect and catch up with getChanges.
+ *
+ * Each event's SSE ID is the state token of the game after it, which can be
+ * passed to getChanges to catch up after reconnecting.
+ */
+public class GameEventBroadcaster {
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    private static final int MAX_PENDING_EVENTS = 256;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<Subscriber>();
+    private final ExecutorService senders = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "cribbage-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Opens a new stream of events.
+     *
+     * @return the stream, to be returned from a request handler
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues an event to be sent to every open stream in the background.
+     *
+     * @param gameNumber the number of the game the event happened in
+     * @param event the event
+     */
+    public void publish(long gameNumber, GameEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        // Built once and shared, since building an event changes the builder
+        Set<DataWithMediaType> message = SseEmitter.event()
+                .id(gameNumber + "." + event.version())
+                .name(event.type().name())
+                .data(new EventView(event, true), MediaType.APPLICATION_JSON)
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.pending.offer(message)) {
+                // The client is too far behind, so its stream is closed by
+                // its own sender rather than here, where closing could wait
+                // on a send in progress
+                subscribers.remove(subscriber);
+                subscriber.overflowed = true;
+                subscriber.pending.clear();
+            }
+            subscriber.schedule();
+        }
+    }
+
+    /** Returns the number of open streams. */
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    /* A stream and the events waiting to be written to it */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Set<DataWithMediaType>> pending =
+                new ArrayBlockingQueue<Set<DataWithMediaType>>(MAX_PENDING_EVENTS);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean overflowed;
+
+        // Only read and written by the sender
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /* Starts a sender for this stream unless one is already running,
+           so that at most one thread writes to it and events stay in order */
+        void schedule() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                if (closed) {
+                    pending.clear();
+                    return;
+                }
+
+                Set<DataWithMediaType> message;
+                while (!overflowed && (message = pending.poll()) != null) {
+                    emitter.send(message);
+                }
+                if (overflowed) {
+                    closed = true;
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sending.set(false);
+            }
+
+            // An event may have been queued after the last poll but before
+            // the sender stopped
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
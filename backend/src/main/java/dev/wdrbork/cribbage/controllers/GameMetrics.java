@@ -0,0 +1,48 @@
+package dev.wdrbork.cribbage.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import dev.wdrbork.cribbage.logic.game.HandDistribution;
+import dev.wdrbork.cribbage.logic.game.ai.AITierPolicy;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardCoach;
+import dev.wdrbork.cribbage.logic.metrics.EngineMetrics;
+
+/**
+ * Publishes the state of the server's games and the engine's caches. 
+ * Together with the engine's own timers (see EngineMetrics) and the request 
+ * timers Spring records for each endpoint, these can be scraped from 
+ * /actuator/prometheus.
+ */
+@Component
+public class GameMetrics implements MeterBinder {
+    @Autowired
+    private GameController controller;
+
+    @Autowired
+    private AITierPolicy aiTierPolicy;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cribbage.games.active", controller, GameController::activeGames)
+                .description("Games that have started and are not over")
+                .register(registry);
+        Gauge.builder("cribbage.events.subscribers", controller, GameController::subscribers)
+                .description("Clients streaming game events")
+                .register(registry);
+        Gauge.builder("cribbage.ai.queue.depth", aiTierPolicy, AITierPolicy::queueDepth)
+                .description("AI tasks waiting or running, which decides the AI's tier")
+                .register(registry);
+        Gauge.builder("cribbage.ai.latency", aiTierPolicy, 
+                        policy -> policy.latencyNanos() / 1e9)
+                .description("Average time recently taken by the AI to choose a card")
+                .baseUnit("seconds")
+                .register(registry);
+        EngineMetrics.monitor(registry, "handDistribution", HandDistribution.cache());
+        EngineMetrics.monitor(registry, "discardCoach", DiscardCoach.getDefault().cache());
+    }
+}
@@ -0,0 +1,51 @@
+package dev.wdrbork.cribbage.controllers;
+
+import java.util.List;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import lombok.Getter;
+
+/**
+ * Everything the frontend displays about a game, taken at a single version 
+ * of the game state. Must be created while holding the game's lock so that 
+ * the fields are consistent with each other.
+ */
+@Getter
+public class GameSnapshot {
+    private long version;
+    private int numPlayers;
+    private int dealer;
+    private int count;
+    private int previousPlayer;
+    private int nextPlayer;
+    private int[] scores;
+    private List<CribbageHand> hands;
+    private List<Deck> playedCards;
+    private CribbageHand crib;
+    private Card starterCard;
+    private Card lastCard;
+    private boolean movePossible;
+    private boolean roundOver;
+    private boolean gameOver;
+
+    public GameSnapshot(CribbageManager game) {
+        this.version = game.version();
+        this.numPlayers = game.numPlayers();
+        this.dealer = game.dealer();
+        this.count = game.count();
+        this.previousPlayer = game.lastToPlayCard();
+        this.nextPlayer = game.nextToPlayCard();
+        this.scores = game.gameScores();
+        this.hands = game.getAllHands();
+        this.playedCards = game.getPlayedCards();
+        this.crib = game.getCrib();
+        this.starterCard = game.starterCard();
+        this.lastCard = game.getLastPlayedCard();
+        this.movePossible = game.movePossible();
+        this.roundOver = game.roundOver();
+        this.gameOver = game.gameOver();
+    }
+}
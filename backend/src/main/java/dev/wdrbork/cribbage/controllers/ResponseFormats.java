@@ -0,0 +1,39 @@
+package dev.wdrbork.cribbage.controllers;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+
+/**
+ * Sets up the formats that responses can be written in. JSON is the 
+ * default, and a client that sends "Accept: application/cbor" gets CBOR 
+ * instead, which is smaller and cheaper to produce. Cards and decks are 
+ * written by hand in both formats (see CardSerializer and DeckSerializer).
+ */
+@Configuration
+public class ResponseFormats {
+    /** Registered with the JSON mapper and, through the builder, with CBOR. */
+    @Bean
+    public Module cardModule() {
+        SimpleModule module = new SimpleModule("cards");
+        module.addSerializer(Card.class, new CardSerializer());
+        module.addSerializer(Deck.class, new DeckSerializer());
+        return module;
+    }
+
+    /** Replaces the default CBOR converter, which would not use cardModule. */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.factory(new CBORFactory()).build());
+    }
+}
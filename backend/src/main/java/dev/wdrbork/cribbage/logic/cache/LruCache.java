@@ -0,0 +1,102 @@
+package dev.wdrbork.cribbage.logic.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread-safe map that holds at most a fixed number of entries, evicting
+ * the least recently used entry when it is full. Values are computed outside
+ * of the lock, so two threads that miss on the same key at the same time may
+ * both compute it; the values being cached are expected to be pure functions
+ * of their keys, so either result can be kept.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class LruCache<K, V> {
+    private final int capacity;
+    private final LinkedHashMap<K, V> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the maximum number of entries
+     */
+    public LruCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached for the given key, computing and caching it
+     * first if there is none.
+     *
+     * @param key the key to look up
+     * @param compute computes the value for a key that is not cached; must
+     *                not return null
+     * @return the value for the key
+     */
+    public V get(K key, Function<? super K, ? extends V> compute) {
+        synchronized (this) {
+            V value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+            misses++;
+        }
+
+        V value = compute.apply(key);
+        if (value == null) {
+            throw new NullPointerException("Computed value is null");
+        }
+        synchronized (this) {
+            entries.put(key, value);
+        }
+        return value;
+    }
+
+    /** Returns the cached value for the given key, or null if there is none. */
+    public synchronized V getIfPresent(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Key or value is null");
+        }
+        entries.put(key, value);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    public int capacity() { return capacity; }
+
+    /** Returns the number of lookups that found a cached value. */
+    public synchronized long hits() { return hits; }
+
+    /** Returns the number of lookups that did not find a cached value. */
+    public synchronized long misses() { return misses; }
+}
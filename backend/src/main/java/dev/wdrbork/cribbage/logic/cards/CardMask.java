@@ -0,0 +1,236 @@
+package dev.wdrbork.cribbage.logic.cards;
+
+import java.util.Arrays;
+
+/**
+ * Utility methods for representing cards as small integer indices and sets
+ * of cards as 64-bit masks. A card's index is its card ID minus one, so the
+ * 52 cards of a standard deck occupy indices 0 through 51 (all clubs first,
+ * then diamonds, hearts, and spades). Bit i of a mask is set if the card
+ * with index i is in the set.
+ */
+public class CardMask {
+    public static final int NUM_CARDS = StandardDeck.DECK_SIZE;
+    public static final int NUM_RANKS = Deck.CARDS_PER_SUIT;
+    public static final int NUM_SUITS = Deck.CARDS_PER_RANK;
+    public static final long FULL_DECK = (1L << NUM_CARDS) - 1;
+
+    // Masks containing every card of a given rank (indexed 0 to 12) or
+    // suit (indexed 0 to 3)
+    private static final long[] RANK_MASKS = new long[NUM_RANKS];
+    private static final long[] SUIT_MASKS = new long[NUM_SUITS];
+
+    // Every card in a standard deck, ordered by index
+    private static final Card[] CARDS = new Card[NUM_CARDS];
+
+    static {
+        for (int idx = 0; idx < NUM_CARDS; idx++) {
+            RANK_MASKS[rankOf(idx)] |= bit(idx);
+            SUIT_MASKS[suitOf(idx)] |= bit(idx);
+            CARDS[idx] = new Card(suitOf(idx) + 1, rankOf(idx) + 1);
+        }
+    }
+
+    /**
+     * Returns the index (between 0 and 51 inclusive) of the given card.
+     *
+     * @param card a card
+     * @return the index of the card
+     */
+    public static int indexOf(Card card) {
+        return card.getCardId() - 1;
+    }
+
+    /**
+     * Returns the index of the card with the given rank (0 for an ace up to
+     * 12 for a king) and suit (0 for clubs up to 3 for spades).
+     *
+     * @param rank the rank of the card, starting at 0
+     * @param suit the suit of the card, starting at 0
+     * @return the index of the card
+     */
+    public static int indexOf(int rank, int suit) {
+        return suit * NUM_RANKS + rank;
+    }
+
+    /**
+     * Returns the card associated with the given index. The same Card
+     * instance is returned for every call with the same index.
+     *
+     * @param idx a card index
+     * @return the card with that index
+     */
+    public static Card cardAt(int idx) {
+        return CARDS[idx];
+    }
+
+    /** Returns the rank of the card with the given index (0 = ace). */
+    public static int rankOf(int idx) {
+        return idx % NUM_RANKS;
+    }
+
+    /** Returns the suit of the card with the given index (0 = club). */
+    public static int suitOf(int idx) {
+        return idx / NUM_RANKS;
+    }
+
+    /** Returns the counting value (1 to 10) of the card with the given index. */
+    public static int valueOf(int idx) {
+        return Math.min(rankOf(idx) + 1, 10);
+    }
+
+    /** Returns a mask containing only the card with the given index. */
+    public static long bit(int idx) {
+        return 1L << idx;
+    }
+
+    /** Returns a mask of every card with the given rank (0 = ace). */
+    public static long rankMask(int rank) {
+        return RANK_MASKS[rank];
+    }
+
+    /** Returns a mask of every card with the given suit (0 = club). */
+    public static long suitMask(int suit) {
+        return SUIT_MASKS[suit];
+    }
+
+    /**
+     * Returns a 13-bit mask with bit r set if the given mask contains a card
+     * of rank r (0 = ace) in any suit.
+     *
+     * @param mask a mask of cards
+     * @return the ranks present in the mask
+     */
+    public static int ranksOf(long mask) {
+        long ranks = mask | (mask >>> NUM_RANKS) | (mask >>> (2 * NUM_RANKS))
+                | (mask >>> (3 * NUM_RANKS));
+        return (int) ranks & ((1 << NUM_RANKS) - 1);
+    }
+
+    /**
+     * Returns the lowest counting value of the cards in the given mask, or
+     * Integer.MAX_VALUE if the mask is empty.
+     *
+     * @param mask a mask of cards
+     * @return the lowest value of any card in the mask
+     */
+    public static int minValue(long mask) {
+        if (mask == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.min(Integer.numberOfTrailingZeros(ranksOf(mask)) + 1, 10);
+    }
+
+    /**
+     * Returns a mask containing every card in the given deck.
+     *
+     * @param deck a deck of cards
+     * @return a mask of the cards in the deck
+     */
+    public static long maskOf(Deck deck) {
+        long mask = 0L;
+        for (Card card : deck.getCards()) {
+            mask |= bit(indexOf(card));
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the indices of the cards in the given deck, in the same order
+     * as the deck.
+     *
+     * @param deck a deck of cards
+     * @return the index of each card in the deck
+     */
+    public static int[] indicesOf(Deck deck) {
+        int[] indices = new int[deck.size()];
+        int i = 0;
+        for (Card card : deck.getCards()) {
+            indices[i++] = indexOf(card);
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the indices of the cards in the given mask in increasing order.
+     *
+     * @param mask a mask of cards
+     * @return the index of each card in the mask
+     */
+    public static int[] indicesOf(long mask) {
+        int[] indices = new int[Long.bitCount(mask)];
+        for (int i = 0; mask != 0; i++) {
+            indices[i] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the number of cards of the given rank that are not in the
+     * given mask.
+     *
+     * @param mask a mask of cards that are unavailable
+     * @param rank a rank (0 = ace)
+     * @return the number of available cards of that rank
+     */
+    public static int available(long mask, int rank) {
+        return NUM_SUITS - Long.bitCount(mask & RANK_MASKS[rank]);
+    }
+
+    /**
+     * Returns the suit relabeling that puts the given set of cards in its
+     * canonical form. Two sets of cards that only differ by a relabeling of
+     * suits (e.g. a hand of hearts and the same hand of spades) have the same
+     * canonical form. The returned array maps each original suit to its
+     * canonical suit.
+     *
+     * @param mask a mask of cards
+     * @return an array where index i holds the canonical suit of suit i
+     */
+    public static int[] canonicalSuitOrder(long mask) {
+        // Order the suits by the ranks they hold, treating each suit as a
+        // 13-bit number (largest first). Suits that hold identical ranks are
+        // interchangeable, so ties keep their original order
+        Integer[] suits = { 0, 1, 2, 3 };
+        Arrays.sort(suits, (a, b) -> Long.compare(
+                suitBlock(mask, b), suitBlock(mask, a)));
+
+        int[] order = new int[NUM_SUITS];
+        for (int canonical = 0; canonical < NUM_SUITS; canonical++) {
+            order[suits[canonical]] = canonical;
+        }
+        return order;
+    }
+
+    /**
+     * Relabels the suits of every card in the given mask.
+     *
+     * @param mask a mask of cards
+     * @param order an array where index i holds the new suit of suit i
+     * @return the relabeled mask
+     */
+    public static long permuteSuits(long mask, int[] order) {
+        long permuted = 0L;
+        for (int suit = 0; suit < NUM_SUITS; suit++) {
+            permuted |= suitBlock(mask, suit) << (order[suit] * NUM_RANKS);
+        }
+        return permuted;
+    }
+
+    /**
+     * Returns the canonical form of the given set of cards (see
+     * canonicalSuitOrder()).
+     *
+     * @param mask a mask of cards
+     * @return the canonical mask
+     */
+    public static long canonicalize(long mask) {
+        return permuteSuits(mask, canonicalSuitOrder(mask));
+    }
+
+    // Returns the ranks held in the given suit as a 13-bit value
+    private static long suitBlock(long mask, int suit) {
+        return (mask >>> (suit * NUM_RANKS)) & ((1L << NUM_RANKS) - 1);
+    }
+}
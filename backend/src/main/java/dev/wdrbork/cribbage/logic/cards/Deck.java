@@ -16,6 +16,9 @@ public class Deck {
 
     protected List<Card> cards;
 
+    // Changes whenever cards are added to or removed from this deck
+    private int version;
+
     public Deck() {
         cards = new LinkedList<Card>();
     }
@@ -42,6 +45,7 @@ public class Deck {
     }
 
     public void clearDeck() {
+        version++;
         cards.clear();
     }
 
@@ -50,6 +54,7 @@ public class Deck {
     }
 
     public boolean retainAll(Deck hand) {
+        version++;
         return cards.retainAll(hand.getCards());
     }
 
@@ -65,10 +70,41 @@ public class Deck {
             return false;
         }
 
+        version++;
         cards.add(card);
         return true;
     }
 
+    /**
+     * Inserts the given card at the given position of this Hand if it isn't 
+     * already present
+     * 
+     * @param idx the position the card will occupy
+     * @param card the card to be added
+     * @return true if the given card has been added to the Hand, false if 
+     *         the card is already in the Hand
+     */
+    public boolean addCard(int idx, Card card) {
+        if (cards.contains(card)) {
+            return false;
+        }
+
+        version++;
+        cards.add(idx, card);
+        return true;
+    }
+
+    /**
+     * Returns the position of the given card in this Hand, or -1 if it is 
+     * not present
+     * 
+     * @param card a card
+     * @return the position of the card, or -1 if it is not in this Hand
+     */
+    public int indexOf(Card card) {
+        return cards.indexOf(card);
+    }
+
     /**
      * Removes the given card from this Hand if it is present
      * 
@@ -81,10 +117,22 @@ public class Deck {
             return false;
         }
 
+        version++;
         cards.remove(card);
         return true;
     }
 
+    /**
+     * Returns a number that changes whenever cards are added to or removed 
+     * from this deck, so callers can tell whether anything they derived from 
+     * its contents is still up to date.
+     * 
+     * @return the current version of this deck
+     */
+    public int version() {
+        return version;
+    }
+
     public String toString() {
         return cards.toString();
     }
@@ -93,6 +141,16 @@ public class Deck {
         Collections.shuffle(cards);
     }
 
+    /**
+     * Shuffles this deck using the given source of randomness, so that the 
+     * same sequence of shuffles can be reproduced.
+     * 
+     * @param r the random number generator to shuffle with
+     */
+    public void shuffle(Random r) {
+        Collections.shuffle(cards, r);
+    }
+
     public void sortDeck() {
         Collections.sort(cards);
     }
@@ -104,11 +162,20 @@ public class Deck {
      * @return a random card from the deck, or null if the deck is empty
      */
     public Card pickRandomCard() {
+        return pickRandomCard(new Random());
+    }
+
+    /**
+     * Same as pickRandomCard(), but uses the given source of randomness.
+     * 
+     * @param r the random number generator to pick with
+     * @return a random card from the deck, or null if the deck is empty
+     */
+    public Card pickRandomCard(Random r) {
         if (cards.isEmpty()) {
             return null;
         }
 
-        Random r = new Random();
         int offset = (int) Math.round(r.nextDouble() * (cards.size() - 1));
         return pickCard(offset);
     }
@@ -133,6 +200,7 @@ public class Deck {
             return null;
         }
 
+        version++;
         Card nextCard = cards.remove(offset);
         return nextCard;
     }
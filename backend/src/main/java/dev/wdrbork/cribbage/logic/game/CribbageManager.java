@@ -5,16 +5,29 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.stereotype.Service;
 
 import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
 import dev.wdrbork.cribbage.logic.cards.Deck;
 import dev.wdrbork.cribbage.logic.cards.Rank;
 import dev.wdrbork.cribbage.logic.cards.StandardDeck;
 import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.game.ai.AITierPolicy;
 import dev.wdrbork.cribbage.logic.game.ai.CribbageAI;
 import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+import dev.wdrbork.cribbage.logic.metrics.EngineMetrics;
+import dev.wdrbork.cribbage.logic.metrics.GameCreatedEvent;
+import dev.wdrbork.cribbage.logic.metrics.IllegalMoveEvent;
 
 /**
  * Manages a game of cribbage. The caller is largely in charge of maintaining 
@@ -31,12 +44,42 @@ public class CribbageManager {
     private static final int THREE_PLAYER_START_SIZE = 5;
     private static final int HAND_SIZE = 4;
 
-    private static final int ROUND_POINT_CATEGORIES = 4;
+    public static final int ROUND_POINT_CATEGORIES = 4;
     private static final int TOTAL_POINTS = 0;
     private static final int RUNS = 1;
     private static final int PAIRS = 2;
     private static final int SPECIAL = 3;
 
+    // Moves recorded on the journal
+    private static final int ADD_CARD = 0;
+    private static final int SEND_TO_CRIB = 1;
+    private static final int PLAY_CARD = 2;
+    private static final int GO = 3;
+    private static final int RESET_COUNT = 4;
+    private static final int SET_NEXT_PLAYER = 5;
+
+    // Each journal entry is a fixed number of ints: the move, the player 
+    // and card involved, the count, last player and next player before the 
+    // move, and one move-specific value (the player's previous score, or the 
+    // card's previous position in their hand)
+    private static final int ENTRY_SIZE = 7;
+    private static final int INITIAL_JOURNAL_ENTRIES = 64;
+
+    // Longest time in milliseconds chooseAIPlayingHands() waits for a 
+    // playing hand that is already being chosen in the background
+    private static final long BACKGROUND_HAND_TIMEOUT = 200;
+
+    // Chooses AI playing hands in the background as soon as cards are dealt. 
+    // The threads are daemons so that they never keep the JVM alive
+    private static final ThreadPoolExecutor AI_EXECUTOR = new ThreadPoolExecutor(
+            Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors(),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), task -> {
+                Thread thread = new Thread(task, "cribbage-ai");
+                thread.setDaemon(true);
+                return thread;
+            });
+
     protected final int numPlayers;
     protected final StandardDeck deck;
     protected final int[] gameScores;
@@ -57,6 +100,48 @@ public class CribbageManager {
     // Count for the second stage of play
     protected int count;
 
+    // Playing hands being chosen in the background for each AI, started 
+    // when the hands are dealt (null if nothing is pending)
+    private final List<Future<CribbageHand>> pendingPlayingHands;
+    private boolean backgroundPlayingHands = true;
+
+    // Source of randomness for shuffling and drawing cards, or null to use 
+    // an unseeded one
+    private Random random;
+
+    // Moves made since the journal was last cleared, so that they can be 
+    // undone (see unmake()). Card stacks removed by resetCount() are saved 
+    // separately in the order they were removed
+    private int[] journal = new int[INITIAL_JOURNAL_ENTRIES * ENTRY_SIZE];
+    private int journalSize;
+    private final List<LinkedList<Card>> clearedStacks = new ArrayList<LinkedList<Card>>();
+
+    // The cards in each player's hand that have not been played yet, kept 
+    // up to date as cards are played so that checking whether a player can 
+    // play does not require searching their hand. Each mask is only trusted 
+    // while the player's hand and played cards are the same decks at the 
+    // same versions as when it was computed; otherwise it is recomputed
+    private final long[] unplayedMasks;
+    private final Deck[] trackedHands;
+    private final Deck[] trackedPlayedCards;
+    private final int[] trackedHandVersions;
+    private final int[] trackedPlayedVersions;
+
+    // The cards each player has sent to the crib this round
+    private final long[] discardMasks;
+
+    // Incremented by every change to the state of the game, including moves 
+    // that are undone, so that clients can tell whether anything changed
+    private long version;
+
+    // Recent events, for games that clients follow (null if not recorded)
+    private GameEventLog eventLog;
+    private boolean winnerRecorded;
+
+    // Identifies this game in diagnostics; copies share the original's ID
+    private static final AtomicLong nextId = new AtomicLong();
+    private final long id;
+
     /**
      * Sets up a default cribbage game with two players.
      */
@@ -75,6 +160,7 @@ public class CribbageManager {
         }
 
         this.numPlayers = numPlayers;
+        this.id = nextId.incrementAndGet();
         deck = new StandardDeck();
         gameScores = new int[numPlayers];
         lastToPlayCard = -1;
@@ -83,8 +169,10 @@ public class CribbageManager {
 
         ai = new SmartPlayer[numPlayers - 1];
         for (int i = 0; i < ai.length; i++) {
-            ai[0] = new SmartPlayer(this, i + 1);
+            ai[i] = new SmartPlayer(this, i + 1);
         }
+        pendingPlayingHands = new ArrayList<Future<CribbageHand>>(
+                Collections.nCopies(ai.length, null));
 
         hands = new ArrayList<CribbageHand>(numPlayers);
         playedCardsByPlayer = new ArrayList<Deck>(numPlayers);
@@ -95,6 +183,20 @@ public class CribbageManager {
 
         crib = new CribbageHand();
         cardStack = new LinkedList<Card>();
+
+        unplayedMasks = new long[numPlayers];
+        trackedHands = new Deck[numPlayers];
+        trackedPlayedCards = new Deck[numPlayers];
+        trackedHandVersions = new int[numPlayers];
+        trackedPlayedVersions = new int[numPlayers];
+        discardMasks = new long[numPlayers];
+
+        GameCreatedEvent created = new GameCreatedEvent();
+        if (created.isEnabled()) {
+            created.gameId = id;
+            created.players = numPlayers;
+            created.commit();
+        }
     }
 
     /**
@@ -108,9 +210,11 @@ public class CribbageManager {
         }
 
         this.numPlayers = copy.numPlayers;
+        this.id = copy.id;
         this.deck = copy.deck;
         this.ai = copy.ai.clone();
         this.gameScores = copy.gameScores.clone();
+        this.lastToPlayCard = copy.lastToPlayCard;
         this.nextToPlayCard = copy.nextToPlayCard;
         this.dealerId = copy.dealerId;
         this.hands = copy.getAllHands();
@@ -119,11 +223,45 @@ public class CribbageManager {
         this.cardStack = new LinkedList<Card>(copy.cardStack);
         this.count = copy.count;
         this.starterCard = copy.starterCard;
+        this.version = copy.version;
+        this.pendingPlayingHands = new ArrayList<Future<CribbageHand>>(
+                Collections.nCopies(ai.length, null));
+
+        this.unplayedMasks = new long[numPlayers];
+        this.trackedHands = new Deck[numPlayers];
+        this.trackedPlayedCards = new Deck[numPlayers];
+        this.trackedHandVersions = new int[numPlayers];
+        this.trackedPlayedVersions = new int[numPlayers];
+        this.discardMasks = copy.discardMasks.clone();
     }
 
     // Getter functions
     public int numPlayers() { return numPlayers; }
 
+    /** Returns a number that identifies this game, shared by its copies. */
+    public long id() { return id; }
+
+    /**
+     * Returns the version of the game state, which increases whenever the 
+     * state changes. A copy of a game starts with the version of the 
+     * original.
+     */
+    public long version() { return version; }
+
+    /**
+     * Starts recording the most recent events of this game (see 
+     * eventLog()), replacing any events recorded so far. Copies of the game 
+     * do not record events.
+     * 
+     * @param capacity the number of events to keep
+     */
+    public void recordEvents(int capacity) {
+        eventLog = new GameEventLog(capacity, version);
+    }
+
+    /** Returns the recent events of this game, or null if none are recorded. */
+    public GameEventLog eventLog() { return eventLog; }
+
     public int lastToPlayCard() { return lastToPlayCard; }
 
     public int nextToPlayCard() { return nextToPlayCard; }
@@ -174,6 +312,67 @@ public class CribbageManager {
         return new CribbageHand(crib);
     }
 
+    /*
+     * Read-only views of the game. Unlike the getters above, these do not 
+     * copy anything; they reflect any later changes to the game and cannot 
+     * be used to modify it. Callers that need to hold onto a hand or make 
+     * moves while iterating should use the copying getters instead.
+     */
+    public List<Card> viewHand(int pid) {
+        if (pid < 0 || pid >= numPlayers) {
+            throw new IllegalArgumentException("Invalid player ID of " + 
+                    pid + "; must be between 0 and " + numPlayers + " exclusive");
+        }
+
+        return hands.get(pid).getCards();
+    }
+
+    public List<Card> viewPlayedCards(int pid) {
+        if (pid < 0 || pid >= numPlayers) {
+            throw new IllegalArgumentException("Invalid player ID of " + 
+                    pid + "; must be between 0 and " + numPlayers + " exclusive");
+        }
+
+        return playedCardsByPlayer.get(pid).getCards();
+    }
+
+    public List<Card> viewCrib() {
+        return crib.getCards();
+    }
+
+    /**
+     * Returns the cards the given player has sent to the crib this round, 
+     * as a CardMask.
+     * 
+     * @param pid a player ID
+     * @return the player's discards
+     */
+    public long discardMask(int pid) {
+        if (pid < 0 || pid >= numPlayers) {
+            throw new IllegalArgumentException("Invalid player ID of " + 
+                    pid + "; must be between 0 and " + numPlayers + " exclusive");
+        }
+
+        return discardMasks[pid];
+    }
+
+    /**
+     * Returns true if the given card is in any player's hand, whether or not 
+     * it has been played.
+     * 
+     * @param card a card
+     * @return true if some player holds the card, false otherwise
+     */
+    public boolean cardInAnyHand(Card card) {
+        for (CribbageHand hand : hands) {
+            if (hand.contains(card)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public Card getLastPlayedCard() {
         if (cardStack.isEmpty()) {
             return null;
@@ -181,11 +380,60 @@ public class CribbageManager {
         return cardStack.getFirst();
     }
 
+    /**
+     * Sets whether dealHands() starts choosing the built-in AI opponents' 
+     * playing hands in the background. Games whose players are driven by 
+     * something other than chooseAIPlayingHands() should turn this off so 
+     * that no work is wasted.
+     * 
+     * @param enabled true to choose AI playing hands when cards are dealt
+     */
+    public void setBackgroundPlayingHands(boolean enabled) {
+        this.backgroundPlayingHands = enabled;
+        if (!enabled) cancelAIPlayingHands();
+    }
+
+    /**
+     * Sets the policy that decides how much work the built-in AI opponents 
+     * put into each decision, based on how busy the AI is.
+     * 
+     * @param policy a tier policy, or null to always use the full budgets
+     */
+    public void setAITierPolicy(AITierPolicy policy) {
+        for (CribbageAI player : ai) {
+            if (player instanceof SmartPlayer) {
+                ((SmartPlayer) player).setTierPolicy(policy);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of AI tasks, across every game, that are waiting 
+     * for or running on the threads that choose playing hands in the 
+     * background.
+     */
+    public static int pendingAITasks() {
+        return AI_EXECUTOR.getQueue().size() + AI_EXECUTOR.getActiveCount();
+    }
+
+    /**
+     * Sets the source of randomness used to shuffle and draw cards. Two games 
+     * given generators with the same seed deal the same cards for as long as 
+     * they make the same calls to dealHands(), pickCardForDealer() and 
+     * pickStarterCard().
+     * 
+     * @param random a random number generator, or null to use an unseeded one
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
     /**************************************************************************
     * Setup Stage
     **************************************************************************/
     public Card pickCardForDealer() {
-        return deck.pickRandomCard();
+        changed();
+        return random != null ? deck.pickRandomCard(random) : deck.pickRandomCard();
     }
 
     public void setDealer(int pid) {
@@ -194,8 +442,10 @@ public class CribbageManager {
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
         } 
         
+        changed();
         this.dealerId = pid;
         nextToPlayCard = (dealerId + 1) % numPlayers;
+        event(GameEvent.Type.DEALER_SET, pid, null, 0);
     }
 
     private void rotateDealer() {
@@ -211,7 +461,9 @@ public class CribbageManager {
     **************************************************************************/
     /**
      * Shuffles the deck and deals out hands to each player in the game. 
-     * Returns each player's hand
+     * Returns each player's hand. Each AI starts choosing its playing hand in 
+     * the background right away so that chooseAIPlayingHands() usually 
+     * finds the result ready.
      * 
      * @return each player's hand (cannot be modified)
      * @throws IllegalArgumentException if a player or the crib still has cards
@@ -226,8 +478,13 @@ public class CribbageManager {
             throw new IllegalStateException("Dealer not decided");
         }
 
+        changed();
         resetDeck();
-        deck.shuffle();
+        if (random != null) {
+            deck.shuffle(random);
+        } else {
+            deck.shuffle();
+        }
 
         int handSize = TWO_PLAYER_START_SIZE;
         if (this.numPlayers == 3) {
@@ -241,6 +498,7 @@ public class CribbageManager {
                 Card next = deck.takeTopCard();
                 assert(next != null) : "Deck is empty";
                 hands.get((j + dealerId) % numPlayers).addCard(next);
+                event(GameEvent.Type.CARD_DEALT, (j + dealerId) % numPlayers, next, 0);
             }
         }
 
@@ -249,12 +507,15 @@ public class CribbageManager {
             Card next = deck.takeTopCard();
             assert(next != null) : "Deck is empty";
             crib.addCard(next);
+            event(GameEvent.Type.CARD_DEALT, -1, next, 0);
         }
 
         // Rearrange the decks so that the cards increase in rank from left to right
         for (CribbageHand hand : hands) {
             hand.sortDeck();
         }
+
+        if (backgroundPlayingHands) startAIPlayingHands();
         return Collections.unmodifiableList(hands);
     }
 
@@ -269,25 +530,28 @@ public class CribbageManager {
      */
     public void addCardToHand(int pid, Card card) {
         if (hands.get(pid).size() == HAND_SIZE) {
-            System.out.println(pid);
-            System.out.println(hands);
-            System.out.println(playedCardsByPlayer);
+            illegalMove("addCardToHand", pid, "Hand is full");
             throw new IllegalArgumentException("Can't add anymore cards to " + 
                     "this player's hand");
         }
 
+        record(ADD_CARD, pid, card, 0);
         hands.get(pid).addCard(card);
+        event(GameEvent.Type.CARD_DEALT, pid, card, 0);
     }
 
     /**
      * Selects the playing hand for each AI opponent and sends the appropriate
-     * cards to the crib.
+     * cards to the crib. If the hand was already chosen in the background 
+     * after the deal, that choice is used. A choice that has not started 
+     * yet, or is taking too long, is abandoned and the hand is chosen on the 
+     * calling thread instead.
      */
     public List<Card> chooseAIPlayingHands() {
         List<Card> cribCards = new LinkedList<Card>();
         for (int i = 0; i < ai.length; i++) {
             CribbageHand currentHand = getHand(i + 1);
-            CribbageHand playingHand = ai[i].choosePlayingHand();
+            CribbageHand playingHand = collectPlayingHand(i, currentHand);
             for (Card card : currentHand.getCards()) {
                 if (!playingHand.contains(card)) {
                     cribCards.add(card);
@@ -299,6 +563,63 @@ public class CribbageManager {
         return cribCards;
     }
 
+    /* Starts choosing each AI's playing hand in the background */
+    private void startAIPlayingHands() {
+        cancelAIPlayingHands();
+        for (int i = 0; i < ai.length; i++) {
+            CribbageAI player = ai[i];
+            CribbageHand dealt = getHand(i + 1);
+            boolean isDealer = dealerId == i + 1;
+            pendingPlayingHands.set(i, AI_EXECUTOR.submit(
+                    () -> player.choosePlayingHand(dealt, isDealer)));
+        }
+    }
+
+    /* Cancels any playing hands still being chosen in the background */
+    private void cancelAIPlayingHands() {
+        for (int i = 0; i < pendingPlayingHands.size(); i++) {
+            Future<CribbageHand> pending = pendingPlayingHands.set(i, null);
+            if (pending != null && !unqueue(pending)) pending.cancel(true);
+        }
+    }
+
+    /* Removes a background task from the executor's queue and cancels it if 
+       it has not started yet. Returns true if it was removed */
+    private static boolean unqueue(Future<?> pending) {
+        if (pending instanceof Runnable && AI_EXECUTOR.remove((Runnable) pending)) {
+            pending.cancel(false);
+            return true;
+        }
+        return false;
+    }
+
+    /* Returns the playing hand chosen in the background for the given AI, or 
+       chooses one now if there is none or the AI's hand has since changed. 
+       A choice still queued behind other games' work is cancelled rather 
+       than waited for, and one already running is only waited on for a 
+       limited time */
+    private CribbageHand collectPlayingHand(int aiIdx, CribbageHand currentHand) {
+        Future<CribbageHand> pending = pendingPlayingHands.set(aiIdx, null);
+        if (pending != null && !pending.isCancelled() && !unqueue(pending)) {
+            try {
+                CribbageHand playingHand = pending.get(
+                        BACKGROUND_HAND_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (currentHand.size() > HAND_SIZE
+                        && currentHand.getCards().containsAll(playingHand.getCards())) {
+                    return playingHand;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Fall back to choosing the hand on this thread
+            } catch (TimeoutException e) {
+                pending.cancel(true);
+            }
+        }
+
+        return ai[aiIdx].choosePlayingHand();
+    }
+
     /**
      * Removes the card from the player's hand and puts it in the crib. The 
      * caller must have already dealt cards to each player, and the crib must 
@@ -312,19 +633,63 @@ public class CribbageManager {
      * @throws IllegalStateException    if the crib is full
      */
     public void sendCardToCrib(int pid, Card card) {
-        if (pid < 0 || pid >= numPlayers) {
+        MoveResult result = checkCribCard(pid, card);
+        if (result != MoveResult.OK) {
+            illegalMove("sendCardToCrib", pid, result.message());
+        }
+
+        if (result == MoveResult.INVALID_PLAYER) {
             throw new IllegalArgumentException("Invalid player ID of " + 
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
-        } else if (card == null) {
+        } else if (result == MoveResult.NO_CARD) {
             throw new NullPointerException("Card is null");
-        } else if (!hands.get(pid).contains(card)) {
+        } else if (result == MoveResult.NOT_IN_HAND) {
             throw new IllegalArgumentException("Player does not have this card");
-        } else if (crib.size() == 4) {
+        } else if (result == MoveResult.CRIB_FULL) {
             throw new IllegalStateException("Crib is full");
         }
 
+        moveCardToCrib(pid, card);
+    }
+
+    /**
+     * Moves the card from the player's hand to the crib if the move is 
+     * legal, like sendCardToCrib(), but reports an illegal move by its 
+     * result rather than by throwing.
+     * 
+     * @param pid a player ID
+     * @param card a card held by the player with the above ID
+     * @return OK if the card was moved, or why it could not be
+     */
+    public MoveResult trySendCardToCrib(int pid, Card card) {
+        MoveResult result = checkCribCard(pid, card);
+        if (result == MoveResult.OK) {
+            moveCardToCrib(pid, card);
+        }
+
+        return result;
+    }
+
+    private MoveResult checkCribCard(int pid, Card card) {
+        if (pid < 0 || pid >= numPlayers) {
+            return MoveResult.INVALID_PLAYER;
+        } else if (card == null) {
+            return MoveResult.NO_CARD;
+        } else if (!hands.get(pid).contains(card)) {
+            return MoveResult.NOT_IN_HAND;
+        } else if (crib.size() == 4) {
+            return MoveResult.CRIB_FULL;
+        }
+
+        return MoveResult.OK;
+    }
+
+    private void moveCardToCrib(int pid, Card card) {
+        record(SEND_TO_CRIB, pid, card, hands.get(pid).indexOf(card));
         hands.get(pid).removeCard(card);
         crib.addCard(card);
+        discardMasks[pid] |= CardMask.bit(CardMask.indexOf(card));
+        event(GameEvent.Type.CARD_TO_CRIB, pid, card, 0);
     }
 
     public Card pickStarterCard() {
@@ -334,12 +699,16 @@ public class CribbageManager {
         //     throw new IllegalArgumentException("Not all hands have been finalized");
         // }
 
-        starterCard = deck.pickRandomCard();
+        changed();
+        starterCard = random != null ? deck.pickRandomCard(random) : deck.pickRandomCard();
 
         // If the starter card is a jack, the dealer gets two points (heels)
+        int heels = 0;
         if (starterCard.getRank() == Rank.JACK) {
-            addPoints(dealerId, 2);
+            heels = 2;
+            addPoints(dealerId, heels);
         }
+        event(GameEvent.Type.STARTER_CUT, dealerId, starterCard, heels);
 
         return starterCard;
     }
@@ -392,36 +761,81 @@ public class CribbageManager {
      * @throws IllegalArgumentException if the player ID is invalid
      */
     public int[] playCard(int pid, Card card) {
-        if (pid < 0 || pid >= numPlayers) {
+        MoveResult result = checkPlay(pid, card);
+        if (result != MoveResult.OK) {
+            illegalMove("playCard", pid, result.message());
+        }
+
+        if (result == MoveResult.INVALID_PLAYER) {
             throw new IllegalArgumentException("Invalid player ID of " + 
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
-        } else if (card == null) {
-            // System.out.println(hands);
-            // System.out.println(playedCardsByPlayer);
-            // System.out.println("PID = " + pid);
-            // System.out.println("Desired PID = " + nextToPlayCard);
-            // System.out.println("Count = " + count);
-           throw new NullPointerException("Card is null");
-        } else if (pid != nextToPlayCard) {
-            System.out.println(dealerId);
-            System.out.println(nextToPlayCard);
+        } else if (result == MoveResult.NO_CARD) {
+            throw new NullPointerException("Card is null");
+        } else if (result == MoveResult.NOT_YOUR_TURN) {
             throw new IllegalArgumentException("Not this player's turn");
-        } else if (!canPlayCard(card)) {
+        } else if (result == MoveResult.ALREADY_PLAYED 
+                || result == MoveResult.EXCEEDS_31) {
             throw new IllegalArgumentException("Card cannot be played");
-        } else if (!hands.get(pid).contains(card)) {
-            // System.out.println("Count = " + count);
-            // System.out.println("Card = " + card);
-            // System.out.println("Hand = " + hands.get(pid));
-            // System.out.println("Played cards = " + playedCardsByPlayer.get(pid));
+        } else if (result == MoveResult.NOT_IN_HAND) {
             throw new IllegalStateException("Player " + pid + " does not have card in their hand");
         }
-    
+
+        int[] pointCategories = new int[ROUND_POINT_CATEGORIES];
+        applyPlay(pid, card, pointCategories);
+        return pointCategories;
+    }
+
+    /**
+     * Plays the passed-in card if the play is legal, like playCard(), but 
+     * reports an illegal play by its result rather than by throwing. This is 
+     * meant for requests from users, where illegal plays are expected and 
+     * should be cheap to turn away.
+     * 
+     * @param pid the player's ID
+     * @param card the card to be played
+     * @param points an array of length ROUND_POINT_CATEGORIES to hold the 
+     *               points earned, split up as in playCard(), or null
+     * @return OK if the card was played, or why it could not be
+     */
+    public MoveResult tryPlayCard(int pid, Card card, int[] points) {
+        MoveResult result = checkPlay(pid, card);
+        if (result == MoveResult.OK) {
+            applyPlay(pid, card, points != null 
+                    ? points : new int[ROUND_POINT_CATEGORIES]);
+        }
+
+        return result;
+    }
+
+    private MoveResult checkPlay(int pid, Card card) {
+        if (pid < 0 || pid >= numPlayers) {
+            return MoveResult.INVALID_PLAYER;
+        } else if (card == null) {
+            return MoveResult.NO_CARD;
+        } else if (pid != nextToPlayCard) {
+            return MoveResult.NOT_YOUR_TURN;
+        } else if (cardAlreadyPlayed(card)) {
+            return MoveResult.ALREADY_PLAYED;
+        } else if (maxCountExceeded(card)) {
+            return MoveResult.EXCEEDS_31;
+        } else if (!hands.get(pid).contains(card)) {
+            return MoveResult.NOT_IN_HAND;
+        }
+
+        return MoveResult.OK;
+    }
+
+    /* Plays a card that is known to be legal, writing the points earned 
+       into the given array */
+    private void applyPlay(int pid, Card card, int[] pointCategories) {
+        record(PLAY_CARD, pid, card, gameScores[pid]);
+        long unplayed = unplayedMask(pid);
         count += card.getValue();
         cardStack.addFirst(card);
         playedCardsByPlayer.get(pid).addCard(card);
+        updateUnplayedMask(pid, unplayed & ~CardMask.bit(CardMask.indexOf(card)));
 
-        int[] pointCategories = new int[ROUND_POINT_CATEGORIES];
-        
+        Arrays.fill(pointCategories, 0);
         pointCategories[PAIRS] = CribbagePegging.countPegPairs(cardStack);
         pointCategories[RUNS] = CribbagePegging.countPegRuns(cardStack);
         if (count == 15 || count == 31) {
@@ -436,16 +850,15 @@ public class CribbageManager {
         addPoints(pid, totalPoints);
         lastToPlayCard = pid;
         if (!movePossible() && count != 31) {
-            awardPointsForGo();
+            // This player was the last to play a card, so the previous 
+            // score recorded above also covers the point for the go
+            addPoints(lastToPlayCard, 1);
             pointCategories[SPECIAL]++;
             pointCategories[TOTAL_POINTS]++;
         }
         determineNextPlayer();
-
-        // System.out.println("Player " + (pid + 1) + " plays a " + card + " to make the count " + count);
-        // System.out.println("Points earned: " + totalPoints);
-        
-        return pointCategories;
+        event(GameEvent.Type.CARD_PLAYED, pid, card, pointCategories[TOTAL_POINTS],
+                pointCategories);
     }
 
     /**
@@ -493,14 +906,12 @@ public class CribbageManager {
      */
     public void awardPointsForGo() {
         if (movePossible()) {
-            System.out.println(Arrays.toString(gameScores));
-            System.out.println(count);
-            System.out.println(lastToPlayCard);
-            System.out.println(hands);
-            System.out.println(playedCardsByPlayer);
+            illegalMove("awardPointsForGo", lastToPlayCard, "Cards can still be played");
             throw new IllegalStateException("Cards can still be played");
         }
+        record(GO, lastToPlayCard, null, gameScores[lastToPlayCard]);
         addPoints(lastToPlayCard, 1);
+        event(GameEvent.Type.GO, lastToPlayCard, null, 1);
     }
 
     /**
@@ -563,26 +974,52 @@ public class CribbageManager {
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
         }
 
-        Deck playedCards = playedCardsByPlayer.get(pid);
-        if (playedCards.size() == HAND_SIZE) {
+        if (playedCardsByPlayer.get(pid).size() == HAND_SIZE) {
             // All cards have been played, so return false
             return false;
         }
 
-        for (Card card : hands.get(pid).getCards()) {
-            int cardValue = card.getValue();
-            if (!playedCards.contains(card) && cardValue + count <= MAX_COUNT) {
-                return true;
-            }
+        // The lowest unplayed card is playable if any card is
+        long unplayed = unplayedMask(pid);
+        return unplayed != 0 && CardMask.minValue(unplayed) + count <= MAX_COUNT;
+    }   
+
+    /* Returns the cards the given player has not played yet, recomputing 
+       them if the player's hand or played cards changed outside of 
+       playCard() and unmake() */
+    private long unplayedMask(int pid) {
+        Deck hand = hands.get(pid);
+        Deck playedCards = playedCardsByPlayer.get(pid);
+        if (trackedHands[pid] != hand 
+                || trackedHandVersions[pid] != hand.version()
+                || trackedPlayedCards[pid] != playedCards 
+                || trackedPlayedVersions[pid] != playedCards.version()) {
+            updateUnplayedMask(pid, 
+                    CardMask.maskOf(hand) & ~CardMask.maskOf(playedCards));
         }
 
-        return false;
-    }   
+        return unplayedMasks[pid];
+    }
+
+    /* Saves the unplayed cards of the given player as up to date with their 
+       current hand and played cards */
+    private void updateUnplayedMask(int pid, long unplayed) {
+        Deck hand = hands.get(pid);
+        Deck playedCards = playedCardsByPlayer.get(pid);
+        unplayedMasks[pid] = unplayed;
+        trackedHands[pid] = hand;
+        trackedHandVersions[pid] = hand.version();
+        trackedPlayedCards[pid] = playedCards;
+        trackedPlayedVersions[pid] = playedCards.version();
+    }
 
     public void resetCount() {
+        record(RESET_COUNT, -1, null, 0);
+        clearedStacks.add(cardStack);
+        cardStack = new LinkedList<Card>();
         count = 0;
-        cardStack.clear();
         determineNextPlayer();
+        event(GameEvent.Type.COUNT_RESET, -1, null, 0);
     }
 
     /**
@@ -598,7 +1035,9 @@ public class CribbageManager {
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
         }
 
+        record(SET_NEXT_PLAYER, pid, null, 0);
         this.nextToPlayCard = pid;
+        event(GameEvent.Type.NEXT_PLAYER_SET, pid, null, 0);
     }
 
     private void determineNextPlayer() {
@@ -619,7 +1058,7 @@ public class CribbageManager {
         if (gameOver()) return true;
 
         // If no more cards can be played, return true
-        for (Deck playedCards : getPlayedCards()) {
+        for (Deck playedCards : playedCardsByPlayer) {
             if (playedCards.size() != HAND_SIZE) {
                 return false;
             }
@@ -627,6 +1066,115 @@ public class CribbageManager {
         return true;
     }
 
+    /**************************************************************************
+    * Move Journal
+    **************************************************************************/
+    /**
+     * Returns the current position of the move journal. Every move made with 
+     * addCardToHand(), sendCardToCrib(), playCard(), awardPointsForGo(), 
+     * resetCount() or setNextPlayer() after this point can be undone by 
+     * passing the returned value to unmakeTo().
+     * 
+     * @return the current position of the journal
+     */
+    public int mark() {
+        return journalSize;
+    }
+
+    /**
+     * Undoes the most recent move recorded on the journal, restoring the 
+     * hands, crib, played cards, count, card stack, scores, and the last and 
+     * next players to play a card to what they were before the move.
+     * 
+     * @throws IllegalStateException if there is no move to undo
+     */
+    public void unmake() {
+        if (journalSize == 0) {
+            throw new IllegalStateException("No moves to undo");
+        }
+
+        changed();
+        journalSize--;
+        int entry = journalSize * ENTRY_SIZE;
+        int pid = journal[entry + 1];
+        Card card = journal[entry + 2] < 0 ? null : CardMask.cardAt(journal[entry + 2]);
+        int previous = journal[entry + 6];
+        switch (journal[entry]) {
+            case ADD_CARD:
+                hands.get(pid).removeCard(card);
+                break;
+            case SEND_TO_CRIB:
+                crib.removeCard(card);
+                discardMasks[pid] &= ~CardMask.bit(CardMask.indexOf(card));
+                hands.get(pid).addCard(previous, card);
+                break;
+            case PLAY_CARD:
+                long unplayed = unplayedMask(pid);
+                cardStack.removeFirst();
+                playedCardsByPlayer.get(pid).removeCard(card);
+                updateUnplayedMask(pid, unplayed | CardMask.bit(CardMask.indexOf(card)));
+                gameScores[pid] = previous;
+                break;
+            case GO:
+                gameScores[pid] = previous;
+                break;
+            case RESET_COUNT:
+                cardStack = clearedStacks.remove(clearedStacks.size() - 1);
+                break;
+            default:
+                break;
+        }
+
+        count = journal[entry + 3];
+        lastToPlayCard = journal[entry + 4];
+        nextToPlayCard = journal[entry + 5];
+        event(GameEvent.Type.RESYNC, -1, null, 0);
+    }
+
+    /**
+     * Undoes every move made since the given journal position was returned 
+     * by mark().
+     * 
+     * @param mark a position returned by mark()
+     * @throws IllegalArgumentException if the position is past the end of 
+     *                                  the journal
+     */
+    public void unmakeTo(int mark) {
+        if (mark < 0 || mark > journalSize) {
+            throw new IllegalArgumentException("Invalid journal position of " + mark);
+        }
+
+        while (journalSize > mark) {
+            unmake();
+        }
+    }
+
+    /**
+     * Forgets every recorded move, so that none of them can be undone.
+     */
+    public void clearJournal() {
+        journalSize = 0;
+        clearedStacks.clear();
+    }
+
+    /* Records a move that is about to be made on the journal */
+    private void record(int move, int pid, Card card, int previous) {
+        changed();
+        if ((journalSize + 1) * ENTRY_SIZE > journal.length) {
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        }
+
+        int entry = journalSize * ENTRY_SIZE;
+        journal[entry] = move;
+        journal[entry + 1] = pid;
+        journal[entry + 2] = card == null ? -1 : CardMask.indexOf(card);
+        journal[entry + 3] = count;
+        journal[entry + 4] = lastToPlayCard;
+        journal[entry + 5] = nextToPlayCard;
+        journal[entry + 6] = previous;
+        journalSize++;
+    }
+
     /**************************************************************************
     * Third Stage (Show)
     **************************************************************************/
@@ -659,9 +1207,12 @@ public class CribbageManager {
      * @return the number of points present in the given player's hand
      */
     public int[] countHand(int pid, boolean addToScore) {
-        int[] scores = hands.get(pid).countCribbageHand(starterCard, false);
+        int[] scores = EngineMetrics.HAND_SCORING.record(
+                () -> hands.get(pid).countCribbageHand(starterCard, false));
         if (addToScore) {
             addPoints(pid, scores[TOTAL_POINTS]);
+            event(GameEvent.Type.HAND_COUNTED, pid, null, scores[TOTAL_POINTS], 
+                    scores);
         }
         
         return scores;
@@ -681,8 +1232,11 @@ public class CribbageManager {
             throw new IllegalStateException("Crib does not have four cards");
         }
 
-        int[] scores = crib.countCribbageHand(starterCard, true);
+        int[] scores = EngineMetrics.CRIB_SCORING.record(
+                () -> crib.countCribbageHand(starterCard, true));
         addPoints(dealerId, scores[TOTAL_POINTS]);
+        event(GameEvent.Type.CRIB_COUNTED, dealerId, null, scores[TOTAL_POINTS],
+                scores);
 
         return scores;
     }
@@ -697,6 +1251,7 @@ public class CribbageManager {
      * @param total the number of points to be added
      */
     protected void addPoints(int pid, int total) {
+        changed();
         gameScores[pid] = Math.min(MAX_SCORE, gameScores[pid] + total);
     }
 
@@ -723,26 +1278,35 @@ public class CribbageManager {
      * cards. Rotates the dealer as well.
      */
     public void clearRoundState() {
+        changed();
+        cancelAIPlayingHands();
         resetCount();
-        clearAllHands();
+        for (CribbageHand hand : hands) {
+            hand.clearDeck();
+        }
 
         for (Deck playedCards : playedCardsByPlayer) {
             playedCards.clearDeck();
         }
 
         crib.clearDeck();
+        Arrays.fill(discardMasks, 0L);
         lastToPlayCard = -1;
         rotateDealer();
         nextToPlayCard = (dealerId + 1) % numPlayers;
+        clearJournal();
+        event(GameEvent.Type.ROUND_CLEARED, dealerId, null, 0);
     }
 
     /**
      * Clears the hands of all players in the game.
      */
     public void clearAllHands() {
+        changed();
         for (CribbageHand hand : hands) {
             hand.clearDeck();
         }
+        event(GameEvent.Type.RESYNC, -1, null, 0);
     }
 
     public void clearHand(int pid) {
@@ -751,7 +1315,9 @@ public class CribbageManager {
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
         }
 
+        changed();
         hands.get(pid).clearDeck();
+        event(GameEvent.Type.RESYNC, -1, null, 0);
     }
 
     public void clearHandOfUnplayedCards(int pid) {
@@ -760,10 +1326,55 @@ public class CribbageManager {
                     pid + "; must be between 0 and " + numPlayers + " exclusive");
         }
 
+        changed();
         hands.get(pid).retainAll(playedCardsByPlayer.get(pid));
+        event(GameEvent.Type.RESYNC, -1, null, 0);
     }
 
     public void resetDeck() {
+        changed();
         deck.resetDeck();
     }
+
+    /* Marks the state of the game as changed */
+    private void changed() {
+        version++;
+    }
+
+    /* Records a move that is about to be refused with an exception, along 
+       with the state that made it illegal, if a flight recording wants it */
+    private void illegalMove(String move, int pid, String reason) {
+        IllegalMoveEvent event = new IllegalMoveEvent();
+        if (event.isEnabled()) {
+            event.gameId = id;
+            event.move = move;
+            event.seat = pid;
+            event.reason = reason;
+            event.state = "dealer=" + dealerId + ", next=" + nextToPlayCard 
+                    + ", last=" + lastToPlayCard + ", count=" + count 
+                    + ", scores=" + Arrays.toString(gameScores) 
+                    + ", hands=" + hands + ", played=" + playedCardsByPlayer;
+            event.commit();
+        }
+    }
+
+    /* Records an event that has just happened, if events are recorded */
+    private void event(GameEvent.Type type, int pid, Card card, int points) {
+        event(type, pid, card, points, null);
+    }
+
+    /* Records an event along with where its points came from. The first 
+       time an event's points win the game, the win is recorded as well */
+    private void event(GameEvent.Type type, int pid, Card card, int points,
+            int[] categories) {
+        if (eventLog == null) {
+            return;
+        }
+
+        eventLog.append(new GameEvent(type, version, pid, card, points, categories));
+        if (points > 0 && pid >= 0 && !winnerRecorded && isWinner(pid)) {
+            winnerRecorded = true;
+            eventLog.append(new GameEvent(GameEvent.Type.GAME_OVER, version, pid, null, 0));
+        }
+    }
 }
\ No newline at end of file
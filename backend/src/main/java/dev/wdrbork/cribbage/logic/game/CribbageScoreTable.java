@@ -0,0 +1,171 @@
+package dev.wdrbork.cribbage.logic.game;
+
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+
+/**
+ * Scores cribbage hands using card indices (see CardMask) and a precomputed
+ * table instead of Deck objects. Points earned through fifteens, pairs, and
+ * runs depend only on the ranks of the five cards, so they are looked up in
+ * a table indexed by the sorted ranks; flushes and nobs are checked
+ * separately. Produces the same totals as CribbageScoring.
+ */
+public class CribbageScoreTable {
+    private static final int NUM_RANKS = CardMask.NUM_RANKS;
+    private static final int SCORED_CARDS = 5;
+    private static final int JACK = 10;
+
+    // Points from fifteens, pairs, and runs for five ranks (0 = ace) sorted
+    // in increasing order, indexed by treating the ranks as digits of a
+    // base-13 number. Entries for unsorted ranks are left empty
+    private static final byte[] RANK_POINTS =
+            new byte[NUM_RANKS * NUM_RANKS * NUM_RANKS * NUM_RANKS * NUM_RANKS];
+
+    static {
+        int[] ranks = new int[SCORED_CARDS];
+        for (ranks[0] = 0; ranks[0] < NUM_RANKS; ranks[0]++)
+        for (ranks[1] = ranks[0]; ranks[1] < NUM_RANKS; ranks[1]++)
+        for (ranks[2] = ranks[1]; ranks[2] < NUM_RANKS; ranks[2]++)
+        for (ranks[3] = ranks[2]; ranks[3] < NUM_RANKS; ranks[3]++)
+        for (ranks[4] = ranks[3]; ranks[4] < NUM_RANKS; ranks[4]++) {
+            // Only four cards of each rank exist
+            if (ranks[0] == ranks[4]) continue;
+            RANK_POINTS[tableIndex(ranks[0], ranks[1], ranks[2], ranks[3], ranks[4])] =
+                    (byte) computeRankPoints(ranks);
+        }
+    }
+
+    /**
+     * Returns the total number of points in a four-card hand along with the
+     * starter card. All five cards must be distinct.
+     *
+     * @param c0 the index of the first card in the hand
+     * @param c1 the index of the second card in the hand
+     * @param c2 the index of the third card in the hand
+     * @param c3 the index of the fourth card in the hand
+     * @param starter the index of the starter card
+     * @param isCrib true if the hand is a crib, false otherwise
+     * @return the total number of points in the hand
+     */
+    public static int score(int c0, int c1, int c2, int c3, int starter,
+            boolean isCrib) {
+        int points = rankPoints(CardMask.rankOf(c0), CardMask.rankOf(c1),
+                CardMask.rankOf(c2), CardMask.rankOf(c3),
+                CardMask.rankOf(starter));
+        return points + flushPoints(c0, c1, c2, c3, starter, isCrib)
+                + nobsPoints(c0, c1, c2, c3, starter);
+    }
+
+    /**
+     * Returns the total number of points in the given four-card hand along
+     * with the starter card.
+     *
+     * @param hand the indices of the four cards in the hand
+     * @param starter the index of the starter card
+     * @param isCrib true if the hand is a crib, false otherwise
+     * @return the total number of points in the hand
+     */
+    public static int score(int[] hand, int starter, boolean isCrib) {
+        return score(hand[0], hand[1], hand[2], hand[3], starter, isCrib);
+    }
+
+    /**
+     * Returns the number of points earned through fifteens, pairs, and runs
+     * by five cards with the given ranks (0 = ace), which may be in any order.
+     *
+     * @return the number of points that do not depend on suits
+     */
+    public static int rankPoints(int r0, int r1, int r2, int r3, int r4) {
+        // Sort the ranks with a fixed sequence of swaps
+        int t;
+        if (r0 > r1) { t = r0; r0 = r1; r1 = t; }
+        if (r3 > r4) { t = r3; r3 = r4; r4 = t; }
+        if (r2 > r4) { t = r2; r2 = r4; r4 = t; }
+        if (r2 > r3) { t = r2; r2 = r3; r3 = t; }
+        if (r1 > r4) { t = r1; r1 = r4; r4 = t; }
+        if (r0 > r3) { t = r0; r0 = r3; r3 = t; }
+        if (r0 > r2) { t = r0; r0 = r2; r2 = t; }
+        if (r1 > r3) { t = r1; r1 = r3; r3 = t; }
+        if (r1 > r2) { t = r1; r1 = r2; r2 = t; }
+        return RANK_POINTS[tableIndex(r0, r1, r2, r3, r4)];
+    }
+
+    /**
+     * Returns the number of points earned through a flush. A hand earns 4
+     * points if its four cards share a suit and 5 if the starter card shares
+     * that suit as well. A crib only earns points for a five-card flush.
+     */
+    public static int flushPoints(int c0, int c1, int c2, int c3, int starter,
+            boolean isCrib) {
+        int suit = CardMask.suitOf(c0);
+        if (CardMask.suitOf(c1) != suit || CardMask.suitOf(c2) != suit
+                || CardMask.suitOf(c3) != suit) {
+            return 0;
+        }
+
+        if (CardMask.suitOf(starter) == suit) {
+            return 5;
+        }
+
+        return isCrib ? 0 : 4;
+    }
+
+    /**
+     * Returns 1 if the hand contains a jack with the same suit as the starter
+     * card (one for his nob), 0 otherwise.
+     */
+    public static int nobsPoints(int c0, int c1, int c2, int c3, int starter) {
+        int nob = CardMask.indexOf(JACK, CardMask.suitOf(starter));
+        return (c0 == nob || c1 == nob || c2 == nob || c3 == nob) ? 1 : 0;
+    }
+
+    private static int tableIndex(int r0, int r1, int r2, int r3, int r4) {
+        return (((r0 * NUM_RANKS + r1) * NUM_RANKS + r2) * NUM_RANKS + r3)
+                * NUM_RANKS + r4;
+    }
+
+    // Scores the given sorted ranks from scratch. Only used to fill the table
+    private static int computeRankPoints(int[] ranks) {
+        int points = 0;
+
+        // Fifteens: check every subset of the five cards
+        for (int subset = 1; subset < (1 << SCORED_CARDS); subset++) {
+            int sum = 0;
+            for (int i = 0; i < SCORED_CARDS; i++) {
+                if ((subset & (1 << i)) != 0) {
+                    sum += Math.min(ranks[i] + 1, 10);
+                }
+            }
+            if (sum == 15) points += 2;
+        }
+
+        // Pairs: every pair of cards with the same rank is worth 2 points
+        for (int i = 0; i < SCORED_CARDS; i++) {
+            for (int j = i + 1; j < SCORED_CARDS; j++) {
+                if (ranks[i] == ranks[j]) points += 2;
+            }
+        }
+
+        // Runs: with only five cards, there can be at most one sequence of
+        // three or more consecutive ranks. Duplicated ranks within that
+        // sequence multiply the number of runs
+        int[] occurrences = new int[NUM_RANKS + 1];
+        for (int rank : ranks) occurrences[rank]++;
+
+        int rank = 0;
+        while (rank < NUM_RANKS) {
+            int length = 0;
+            int multiplier = 1;
+            while (occurrences[rank + length] > 0) {
+                multiplier *= occurrences[rank + length];
+                length++;
+            }
+
+            if (length >= 3) {
+                points += length * multiplier;
+            }
+            rank += length + 1;
+        }
+
+        return points;
+    }
+}
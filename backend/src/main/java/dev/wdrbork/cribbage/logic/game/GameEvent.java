@@ -0,0 +1,92 @@
+package dev.wdrbork.cribbage.logic.game;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+
+/**
+ * Something that happened in a game, recorded by CribbageManager so that
+ * clients can catch up on a game without fetching all of it again. Each 
+ * event holds the version of the game state right after it happened.
+ */
+public class GameEvent {
+    public enum Type {
+        /** The given player became the dealer. */
+        DEALER_SET,
+        /** A card was dealt to the given player, or to the crib if pid is -1. */
+        CARD_DEALT,
+        /** The given player sent a card to the crib. */
+        CARD_TO_CRIB,
+        /** The starter card was cut; points are the dealer's for heels. */
+        STARTER_CUT,
+        /** The given player played a card, earning the given points. */
+        CARD_PLAYED,
+        /** The given player earned a point for a go. */
+        GO,
+        /** The count was reset to 0. */
+        COUNT_RESET,
+        /** The given player was made the next to play a card. */
+        NEXT_PLAYER_SET,
+        /** The given player's hand was counted for the given points. */
+        HAND_COUNTED,
+        /** The crib was counted for the given points, earned by the dealer. */
+        CRIB_COUNTED,
+        /** The round was cleared and the given player is the new dealer. */
+        ROUND_CLEARED,
+        /** The given player won the game. */
+        GAME_OVER,
+        /** The game changed in a way that events do not describe. */
+        RESYNC
+    }
+
+    private final Type type;
+    private final long version;
+    private final int pid;
+    private final Card card;
+    private final int points;
+    private final int[] categories;
+
+    public GameEvent(Type type, long version, int pid, Card card, int points) {
+        this(type, version, pid, card, points, null);
+    }
+
+    /**
+     * Creates an event that also records where its points came from.
+     *
+     * @param categories the points split into categories, as returned by 
+     *                   CribbageManager.playCard() or countHand()
+     */
+    public GameEvent(Type type, long version, int pid, Card card, int points,
+            int[] categories) {
+        this.type = type;
+        this.version = version;
+        this.pid = pid;
+        this.card = card;
+        this.points = points;
+        this.categories = categories == null ? null : categories.clone();
+    }
+
+    public Type type() { return type; }
+
+    public long version() { return version; }
+
+    /** Returns the player the event concerns, or -1 if none. */
+    public int pid() { return pid; }
+
+    /** Returns the card the event concerns, or null if none. */
+    public Card card() { return card; }
+
+    public int points() { return points; }
+
+    /**
+     * Returns the points split into categories for plays and counted hands,
+     * or null for other events.
+     */
+    public int[] categories() {
+        return categories == null ? null : categories.clone();
+    }
+
+    @Override
+    public String toString() {
+        return type + "@" + version + "(pid = " + pid + ", card = " + card 
+                + ", points = " + points + ")";
+    }
+}
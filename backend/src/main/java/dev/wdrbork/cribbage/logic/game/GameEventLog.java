@@ -0,0 +1,109 @@
+package dev.wdrbork.cribbage.logic.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The most recent events of a game, kept in a ring buffer of fixed size. 
+ * A client that last saw some version of the game can be sent the events 
+ * after that version, as long as none of them have been overwritten yet and
+ * none of them is a RESYNC. Listeners are told about each event as it is 
+ * added, on the thread that changed the game, so they should hand off any 
+ * slow work.
+ */
+public class GameEventLog {
+    private final GameEvent[] events;
+    private final List<Consumer<GameEvent>> listeners = 
+            new CopyOnWriteArrayList<Consumer<GameEvent>>();
+    private int start;
+    private int size;
+
+    // Events after this version are all in the buffer
+    private long baseVersion;
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity the number of events to keep
+     * @param baseVersion the version of the game when the log was created
+     */
+    public GameEventLog(int capacity, long baseVersion) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.events = new GameEvent[capacity];
+        this.baseVersion = baseVersion;
+    }
+
+    /** 
+     * Adds an event, overwriting the oldest one if the log is full, and 
+     * passes it to every listener.
+     */
+    public void append(GameEvent event) {
+        synchronized (this) {
+            if (size == events.length) {
+                baseVersion = events[start].version();
+                events[start] = event;
+                start = (start + 1) % events.length;
+            } else {
+                events[(start + size) % events.length] = event;
+                size++;
+            }
+        }
+
+        for (Consumer<GameEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    public void addListener(Consumer<GameEvent> listener) {
+        if (listener == null) {
+            throw new NullPointerException("Listener is null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<GameEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns every event after the given version, oldest first, or null if 
+     * the events cannot bring a client at that version up to date.
+     *
+     * @param version the last version of the game the client saw
+     * @return the events since then, or null if some have been overwritten 
+     *         or include a RESYNC
+     */
+    public synchronized List<GameEvent> since(long version) {
+        if (version < baseVersion) {
+            return null;
+        }
+
+        int first = size;
+        while (first > 0 && get(first - 1).version() > version) {
+            first--;
+            if (get(first).type() == GameEvent.Type.RESYNC) {
+                return null;
+            }
+        }
+
+        List<GameEvent> recent = new ArrayList<GameEvent>(size - first);
+        for (int i = first; i < size; i++) {
+            recent.add(get(i));
+        }
+        return recent;
+    }
+
+    public synchronized int size() { return size; }
+
+    public int capacity() { return events.length; }
+
+    // Returns the i-th oldest event in the buffer
+    private GameEvent get(int i) {
+        return events[(start + i) % events.length];
+    }
+}
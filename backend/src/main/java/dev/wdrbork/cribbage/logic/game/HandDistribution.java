@@ -0,0 +1,168 @@
+package dev.wdrbork.cribbage.logic.game;
+
+import dev.wdrbork.cribbage.logic.cache.LruCache;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.metrics.ScoringBatchEvent;
+
+/**
+ * The distribution of a four-card hand's score over every starter card that
+ * could still be cut. A hand's score only depends on which starters are 
+ * possible, not on the order of suits, so distributions are cached under 
+ * the canonical form of the hand and the cards known not to be the starter, 
+ * and are shared by every game on the server.
+ */
+public class HandDistribution {
+    /** The highest score a hand can earn. */
+    public static final int MAX_SCORE = 29;
+
+    private static final int HAND_SIZE = 4;
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    private static final LruCache<Key, HandDistribution> CACHE =
+            new LruCache<>(CACHE_CAPACITY);
+
+    private final int[] counts;
+    private final int starters;
+    private final double mean;
+    private final double variance;
+
+    private HandDistribution(int[] counts) {
+        this.counts = counts;
+
+        int starters = 0;
+        long points = 0;
+        long squares = 0;
+        for (int score = 0; score < counts.length; score++) {
+            starters += counts[score];
+            points += (long) score * counts[score];
+            squares += (long) score * score * counts[score];
+        }
+        this.starters = starters;
+        this.mean = starters == 0 ? 0 : (double) points / starters;
+        this.variance = starters == 0 ? 0 : (double) squares / starters - mean * mean;
+    }
+
+    /**
+     * Returns the score distribution of the given hand, from the shared 
+     * cache if possible.
+     *
+     * @param hand a mask of the four cards in the hand
+     * @param dead a mask of other cards that cannot be the starter, such as 
+     *             the cards a player can see; may overlap the hand
+     * @param isCrib true if the hand is a crib, false otherwise
+     * @return the distribution of the hand's score
+     * @throws IllegalArgumentException if the hand does not have four cards
+     */
+    public static HandDistribution of(long hand, long dead, boolean isCrib) {
+        if (Long.bitCount(hand) != HAND_SIZE) {
+            throw new IllegalArgumentException("Hand must have exactly four cards");
+        }
+
+        int[] order = CardMask.canonicalSuitOrder(hand);
+        Key key = new Key(CardMask.permuteSuits(hand, order),
+                CardMask.permuteSuits(dead & ~hand, order), isCrib);
+        return CACHE.get(key, k -> compute(k.hand, k.dead, k.isCrib));
+    }
+
+    /**
+     * Computes the score distribution of the given hand without using the 
+     * cache, by scoring it with every possible starter.
+     *
+     * @param hand a mask of the four cards in the hand
+     * @param dead a mask of other cards that cannot be the starter
+     * @param isCrib true if the hand is a crib, false otherwise
+     * @return the distribution of the hand's score
+     * @throws IllegalArgumentException if the hand does not have four cards
+     */
+    public static HandDistribution compute(long hand, long dead, boolean isCrib) {
+        if (Long.bitCount(hand) != HAND_SIZE) {
+            throw new IllegalArgumentException("Hand must have exactly four cards");
+        }
+
+        ScoringBatchEvent event = new ScoringBatchEvent();
+        event.begin();
+        int[] cards = CardMask.indicesOf(hand);
+        int[] counts = new int[MAX_SCORE + 1];
+        long starters = CardMask.FULL_DECK & ~(hand | dead);
+        while (starters != 0) {
+            int starter = Long.numberOfTrailingZeros(starters);
+            starters &= starters - 1;
+            counts[CribbageScoreTable.score(cards, starter, isCrib)]++;
+        }
+
+        HandDistribution distribution = new HandDistribution(counts);
+        if (event.shouldCommit()) {
+            event.crib = isCrib;
+            event.starters = distribution.starters();
+            event.mean = distribution.mean();
+            event.commit();
+        }
+        return distribution;
+    }
+
+    /** Returns the cache shared by every call to of(). */
+    public static LruCache<?, HandDistribution> cache() {
+        return CACHE;
+    }
+
+    /** Returns the number of starters that give each score, indexed by score. */
+    public int[] counts() { return counts.clone(); }
+
+    /** Returns the number of starters that give the given score. */
+    public int count(int score) {
+        return score < 0 || score > MAX_SCORE ? 0 : counts[score];
+    }
+
+    /** Returns the number of starters that could be cut. */
+    public int starters() { return starters; }
+
+    public double mean() { return mean; }
+
+    public double variance() { return variance; }
+
+    /** Returns the probability that the hand scores exactly the given score. */
+    public double probability(int score) {
+        return starters == 0 ? 0 : (double) count(score) / starters;
+    }
+
+    /** Returns the lowest score the hand can earn, or 0 if no starter is left. */
+    public int min() {
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            if (counts[score] > 0) return score;
+        }
+        return 0;
+    }
+
+    /** Returns the highest score the hand can earn, or 0 if no starter is left. */
+    public int max() {
+        for (int score = MAX_SCORE; score > 0; score--) {
+            if (counts[score] > 0) return score;
+        }
+        return 0;
+    }
+
+    /* Identifies a distribution in the cache */
+    private static final class Key {
+        final long hand;
+        final long dead;
+        final boolean isCrib;
+
+        Key(long hand, long dead, boolean isCrib) {
+            this.hand = hand;
+            this.dead = dead;
+            this.isCrib = isCrib;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return hand == key.hand && dead == key.dead && isCrib == key.isCrib;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hand * 31 + dead) * 2 + (isCrib ? 1 : 0);
+        }
+    }
+}
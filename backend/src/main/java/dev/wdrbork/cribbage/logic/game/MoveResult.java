@@ -0,0 +1,28 @@
+package dev.wdrbork.cribbage.logic.game;
+
+/**
+ * The outcome of trying to play a card or send a card to the crib with 
+ * CribbageManager.tryPlayCard() or trySendCardToCrib(). Every result other 
+ * than OK means the move was refused and the game was left unchanged.
+ */
+public enum MoveResult {
+    OK("Move made"),
+    INVALID_PLAYER("Invalid player ID"),
+    NO_CARD("Card is null"),
+    NOT_YOUR_TURN("Not this player's turn"),
+    EXCEEDS_31("Card would make the count exceed 31"),
+    ALREADY_PLAYED("Card has already been played"),
+    NOT_IN_HAND("Player does not have this card"),
+    CRIB_FULL("Crib is full");
+
+    private final String message;
+
+    MoveResult(String message) {
+        this.message = message;
+    }
+
+    /** Returns a description of this result that can be shown to a user. */
+    public String message() {
+        return message;
+    }
+}
@@ -0,0 +1,16 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+/**
+ * How much work SmartPlayer puts into a decision. The tier is picked for
+ * each decision by an AITierPolicy, based on how busy the AI is.
+ */
+public enum AITier {
+    /** The full discard search and Monte Carlo tree search budgets. */
+    FULL,
+
+    /** Shorter discard refinement and fewer search iterations. */
+    REDUCED,
+
+    /** No search at all: table-driven discards and greedy pegging. */
+    HEURISTIC
+}
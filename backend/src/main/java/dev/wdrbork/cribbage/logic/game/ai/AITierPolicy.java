@@ -0,0 +1,240 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import io.micrometer.core.instrument.Timer;
+
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.metrics.AITierEvent;
+import dev.wdrbork.cribbage.logic.metrics.EngineMetrics;
+
+/**
+ * Chooses how much work SmartPlayer puts into each decision based on how
+ * busy the AI is, so that moves stay fast when the server is under load.
+ * Two live readings are taken before each decision:
+ *
+ * - The queue depth: AI tasks waiting for or running on the background
+ *   executor (see CribbageManager.pendingAITasks()), plus card searches
+ *   already in progress on other threads.
+ * - The recent latency: a moving average of the time taken to choose a card.
+ *
+ * If either reading reaches its heuristic threshold, the decision is made
+ * by GreedyPlayer. Otherwise, if either reaches its reduced threshold, the
+ * search budgets are cut. Otherwise the full budgets are used. Since cheaper
+ * decisions bring the average latency back down, the tiers settle where
+ * moves take about as long as the thresholds allow.
+ *
+ * Each decision is timed by a timer tagged with its kind and tier (see
+ * EngineMetrics.aiDecision()) and recorded as an AITierEvent. The setters
+ * follow JavaBean conventions so that the server can configure the policy
+ * from its properties.
+ */
+public class AITierPolicy {
+    /** The kinds of decisions made under the policy. */
+    public enum Decision { DISCARD, CARD }
+
+    private final IntSupplier backlog;
+    private final AtomicInteger searches = new AtomicInteger();
+    private final Timer[][] timers =
+            new Timer[Decision.values().length][AITier.values().length];
+
+    private boolean adaptive = true;
+    private int reducedQueueDepth = 4;
+    private int heuristicQueueDepth = 16;
+    private long reducedLatencyMillis = 2000;
+    private long heuristicLatencyMillis = 5000;
+    private int reducedIterations = 20000;
+    private long reducedDiscardDeadline = 5;
+    private double latencySmoothing = 0.2;
+
+    // Moving average of the time taken to choose a card, in nanoseconds
+    private long latency;
+
+    /**
+     * Creates a policy that reads the queue depth from the executor shared
+     * by every game.
+     */
+    public AITierPolicy() {
+        this(CribbageManager::pendingAITasks);
+    }
+
+    /**
+     * Creates a policy that reads the number of pending background AI tasks
+     * from the given source.
+     *
+     * @param backlog returns the number of AI tasks queued or running
+     */
+    public AITierPolicy(IntSupplier backlog) {
+        this.backlog = backlog;
+        for (Decision decision : Decision.values()) {
+            for (AITier tier : AITier.values()) {
+                timers[decision.ordinal()][tier.ordinal()] = EngineMetrics.aiDecision(
+                        decision.name().toLowerCase(), tier.name().toLowerCase());
+            }
+        }
+    }
+
+    /** Returns the number of AI tasks pending, including card searches. */
+    public int queueDepth() {
+        return backlog.getAsInt() + searches.get();
+    }
+
+    /** Returns the average time recently taken to choose a card. */
+    public synchronized long latencyNanos() {
+        return latency;
+    }
+
+    /** Returns the tier the next decision would be made at. */
+    public AITier select() {
+        return select(queueDepth(), latencyNanos());
+    }
+
+    private AITier select(int depth, long recentLatency) {
+        if (!adaptive) {
+            return AITier.FULL;
+        } else if (depth >= heuristicQueueDepth
+                || recentLatency >= TimeUnit.MILLISECONDS.toNanos(heuristicLatencyMillis)) {
+            return AITier.HEURISTIC;
+        } else if (depth >= reducedQueueDepth
+                || recentLatency >= TimeUnit.MILLISECONDS.toNanos(reducedLatencyMillis)) {
+            return AITier.REDUCED;
+        }
+
+        return AITier.FULL;
+    }
+
+    /**
+     * Picks a tier for a decision, makes the decision at that tier and
+     * records how long it took.
+     *
+     * @param decision the kind of decision being made
+     * @param choice makes the decision at the tier it is given
+     * @return the result of the decision
+     */
+    public <T> T decide(Decision decision, Function<AITier, T> choice) {
+        AITierEvent event = new AITierEvent();
+        event.begin();
+        int depth = queueDepth();
+        long recentLatency = latencyNanos();
+        AITier tier = select(depth, recentLatency);
+
+        // Background discards are already counted by the executor
+        boolean search = decision == Decision.CARD;
+        if (search) searches.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return choice.apply(tier);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (search) {
+                searches.decrementAndGet();
+                recordLatency(elapsed);
+            }
+            timers[decision.ordinal()][tier.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.decision = decision.name();
+                event.tier = tier.name();
+                event.queueDepth = depth;
+                event.latency = recentLatency;
+                event.commit();
+            }
+        }
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latency = latency == 0 ? nanos
+                : latency + Math.round(latencySmoothing * (nanos - latency));
+    }
+
+    public boolean isAdaptive() { return adaptive; }
+
+    /**
+     * Sets whether tiers are chosen by load. If not, every decision is made
+     * at the full tier, but is still timed and recorded.
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    public int getReducedQueueDepth() { return reducedQueueDepth; }
+
+    /** Sets the queue depth at which search budgets are reduced. */
+    public void setReducedQueueDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Queue depth must be positive");
+        }
+        this.reducedQueueDepth = depth;
+    }
+
+    public int getHeuristicQueueDepth() { return heuristicQueueDepth; }
+
+    /** Sets the queue depth at which GreedyPlayer makes the decisions. */
+    public void setHeuristicQueueDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Queue depth must be positive");
+        }
+        this.heuristicQueueDepth = depth;
+    }
+
+    public long getReducedLatencyMillis() { return reducedLatencyMillis; }
+
+    /** Sets the average card latency at which search budgets are reduced. */
+    public void setReducedLatencyMillis(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Latency must be positive");
+        }
+        this.reducedLatencyMillis = millis;
+    }
+
+    public long getHeuristicLatencyMillis() { return heuristicLatencyMillis; }
+
+    /** Sets the average card latency at which GreedyPlayer takes over. */
+    public void setHeuristicLatencyMillis(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Latency must be positive");
+        }
+        this.heuristicLatencyMillis = millis;
+    }
+
+    public int getReducedIterations() { return reducedIterations; }
+
+    /**
+     * Sets the most Monte Carlo tree search iterations used to choose a
+     * card at the reduced tier.
+     */
+    public void setReducedIterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Must search for at least one iteration");
+        }
+        this.reducedIterations = iterations;
+    }
+
+    public long getReducedDiscardDeadline() { return reducedDiscardDeadline; }
+
+    /**
+     * Sets the most time in milliseconds spent refining keeps at the reduced
+     * tier.
+     */
+    public void setReducedDiscardDeadline(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Deadline cannot be negative");
+        }
+        this.reducedDiscardDeadline = millis;
+    }
+
+    public double getLatencySmoothing() { return latencySmoothing; }
+
+    /**
+     * Sets the weight of the latest card in the average latency. Higher
+     * values react to load faster but switch tiers more often.
+     */
+    public void setLatencySmoothing(double weight) {
+        if (weight <= 0 || weight > 1) {
+            throw new IllegalArgumentException("Weight must be in (0, 1]");
+        }
+        this.latencySmoothing = weight;
+    }
+}
@@ -0,0 +1,178 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.game.CribbageScoreTable;
+
+/**
+ * Computes the exact expected score of a hand or crib from the point of view
+ * of a player who only knows the cards they were dealt. Every card the
+ * player has not seen is treated as equally likely to be the starter card or
+ * to fill an open spot in the crib.
+ *
+ * Enumerating every possible crib card by card is too slow to do for each
+ * discard (two unknown crib cards and a starter card alone give 1035 * 44 =
+ * 45,540 cribs), so the crib is evaluated with suits factored out. Fifteens,
+ * pairs, and runs only depend on ranks, so the unknown cards are enumerated
+ * as rank combinations, each weighted by the number of unseen cards that
+ * produce it. Flushes and nobs are the only suit-dependent points, and their
+ * probabilities are computed directly. The result is identical to the full
+ * card-by-card enumeration at a small fraction of the cost.
+ */
+public class CribEvaluator {
+    private static final int HAND_SIZE = 4;
+    private static final int NUM_RANKS = CardMask.NUM_RANKS;
+    private static final int NUM_SUITS = CardMask.NUM_SUITS;
+    private static final int JACK = 10;
+
+    /**
+     * Returns the expected score of a four-card hand (not a crib) over every
+     * starter card that is not in the seen mask.
+     *
+     * @param seen a mask of every card known to the player; must include the
+     *             cards in the hand
+     * @param hand the indices of the four cards in the hand
+     * @return the expected score of the hand
+     */
+    public static double expectedHandScore(long seen, int[] hand) {
+        long unseen = ~seen & CardMask.FULL_DECK;
+        int total = 0;
+        int starters = 0;
+        while (unseen != 0) {
+            int starter = Long.numberOfTrailingZeros(unseen);
+            unseen &= unseen - 1;
+            total += CribbageScoreTable.score(hand, starter, false);
+            starters++;
+        }
+
+        return (double) total / starters;
+    }
+
+    /**
+     * Returns the expected score of a crib that contains the given cards,
+     * with the rest of the crib and the starter card drawn from the cards
+     * that are not in the seen mask.
+     *
+     * @param seen a mask of every card known to the player; must include the
+     *             known crib cards
+     * @param cribCards the indices of the crib cards known to the player
+     *                  (between 0 and 4 cards)
+     * @return the expected score of the crib
+     */
+    public static double expectedCribScore(long seen, int... cribCards) {
+        if (cribCards.length > HAND_SIZE) {
+            throw new IllegalArgumentException("A crib cannot have more than 4 cards");
+        }
+
+        int unknown = HAND_SIZE - cribCards.length;
+        int unseenCards = CardMask.NUM_CARDS - Long.bitCount(seen);
+        if (unseenCards <= unknown) {
+            throw new IllegalArgumentException("Not enough unseen cards to fill the crib");
+        }
+
+        int[] available = new int[NUM_RANKS];
+        for (int rank = 0; rank < NUM_RANKS; rank++) {
+            available[rank] = CardMask.available(seen, rank);
+        }
+
+        int[] ranks = new int[HAND_SIZE];
+        for (int i = 0; i < cribCards.length; i++) {
+            ranks[i] = CardMask.rankOf(cribCards[i]);
+        }
+
+        // Sum the points from fifteens, pairs, and runs over every possible
+        // combination of unknown ranks and starter rank, weighted by the
+        // number of ways each combination can be drawn
+        long rankTotal = sumRankPoints(ranks, cribCards.length, 0, available,
+                new int[NUM_RANKS], 1);
+        double outcomes = (double) choose(unseenCards, unknown)
+                * (unseenCards - unknown);
+        double expected = rankTotal / outcomes;
+
+        // A crib flush requires all five cards to share a suit
+        for (int suit = 0; suit < NUM_SUITS; suit++) {
+            if (!allOfSuit(cribCards, suit)) continue;
+
+            int suited = CardMask.NUM_RANKS
+                    - Long.bitCount(seen & CardMask.suitMask(suit));
+            if (suited > unknown) {
+                expected += 5 * choose(suited, unknown)
+                        * (suited - unknown) / outcomes;
+            }
+        }
+
+        // Nobs: each jack in the crib earns a point if the starter shares
+        // its suit
+        for (int suit = 0; suit < NUM_SUITS; suit++) {
+            int jack = CardMask.indexOf(JACK, suit);
+            int suited = CardMask.NUM_RANKS
+                    - Long.bitCount(seen & CardMask.suitMask(suit));
+            if (contains(cribCards, jack)) {
+                expected += (double) suited / unseenCards;
+            } else if ((seen & CardMask.bit(jack)) == 0) {
+                // The jack is unseen, so it must land in the crib and the
+                // starter must be one of the other unseen cards of its suit
+                expected += (double) unknown / unseenCards
+                        * (suited - 1) / (unseenCards - 1);
+            }
+        }
+
+        return expected;
+    }
+
+    // Recursively fills the remaining crib slots with unknown ranks in
+    // non-decreasing order, then tries every starter rank. Returns the total
+    // rank points of every combination multiplied by the number of distinct
+    // sets of cards that produce it
+    private static long sumRankPoints(int[] ranks, int filled, int minRank,
+            int[] available, int[] taken, long ways) {
+        if (filled == HAND_SIZE) {
+            long total = 0;
+            for (int starter = 0; starter < NUM_RANKS; starter++) {
+                int remaining = available[starter] - taken[starter];
+                if (remaining <= 0) continue;
+
+                total += ways * remaining * CribbageScoreTable.rankPoints(
+                        ranks[0], ranks[1], ranks[2], ranks[3], starter);
+            }
+            return total;
+        }
+
+        long total = 0;
+        for (int rank = minRank; rank < NUM_RANKS; rank++) {
+            int remaining = available[rank] - taken[rank];
+            if (remaining <= 0) continue;
+
+            // Choosing k cards of a rank with n available can be done in
+            // C(n, k) ways; extend C(n, k - 1) to C(n, k)
+            taken[rank]++;
+            ranks[filled] = rank;
+            total += sumRankPoints(ranks, filled + 1, rank, available, taken,
+                    ways * remaining / taken[rank]);
+            taken[rank]--;
+        }
+
+        return total;
+    }
+
+    private static boolean allOfSuit(int[] cards, int suit) {
+        for (int card : cards) {
+            if (CardMask.suitOf(card) != suit) return false;
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] cards, int target) {
+        for (int card : cards) {
+            if (card == target) return true;
+        }
+        return false;
+    }
+
+    private static long choose(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+}
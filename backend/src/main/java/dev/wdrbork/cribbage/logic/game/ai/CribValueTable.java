@@ -0,0 +1,223 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+
+/**
+ * The expected score of a crib given only the card(s) one player sends to
+ * it. Values are stored for the dealer and the non-dealer since the other
+ * players choose their discards differently depending on who owns the crib.
+ *
+ * In a two-player game, a discard is identified by the ranks of its two
+ * cards and whether they share a suit. In a three-player game, each player
+ * discards a single card, so a discard is identified by its rank. The
+ * values are produced by CribValueTableBuilder and loaded from a CSV file
+ * with one row per discard:
+ *
+ *     players,dealer,rank1,rank2,suited,value
+ *
+ * where ranks run from 1 (ace) to 13 (king) and rank2 is 0 for a
+ * three-player discard.
+ */
+public class CribValueTable {
+    public static final String RESOURCE = "/crib-values.csv";
+
+    private static final int NUM_RANKS = CardMask.NUM_RANKS;
+    private static final int DEALER = 0;
+    private static final int NON_DEALER = 1;
+
+    private static CribValueTable defaultTable;
+    private static boolean defaultLoaded;
+
+    // For two players, [role][low][high] holds offsuit discards and pairs,
+    // while [role][high][low] holds suited discards
+    private final double[][][] twoPlayerValues;
+    private final double[][] threePlayerValues;
+
+    public CribValueTable() {
+        twoPlayerValues = new double[2][NUM_RANKS][NUM_RANKS];
+        threePlayerValues = new double[2][NUM_RANKS];
+    }
+
+    /**
+     * Returns the table bundled with the application, or null if it is not
+     * on the classpath. The table is only loaded once.
+     *
+     * @return the default crib value table, or null if there is none
+     */
+    public static synchronized CribValueTable getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            try (InputStream in = CribValueTable.class.getResourceAsStream(RESOURCE)) {
+                if (in != null) {
+                    defaultTable = read(in);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return defaultTable;
+    }
+
+    /**
+     * Reads a table in the CSV format described above.
+     *
+     * @param in the CSV data
+     * @return the table
+     * @throws IOException if the data cannot be read
+     * @throws IllegalArgumentException if a row is malformed
+     */
+    public static CribValueTable read(InputStream in) throws IOException {
+        CribValueTable table = new CribValueTable();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("players")) {
+                continue;
+            }
+
+            String[] fields = line.split(",");
+            if (fields.length != 6) {
+                throw new IllegalArgumentException("Malformed row: " + line);
+            }
+
+            int players = Integer.parseInt(fields[0]);
+            boolean isDealer = Boolean.parseBoolean(fields[1]);
+            int first = Integer.parseInt(fields[2]) - 1;
+            int second = Integer.parseInt(fields[3]) - 1;
+            boolean suited = Boolean.parseBoolean(fields[4]);
+            double value = Double.parseDouble(fields[5]);
+            if (players == 2) {
+                table.setValue(first, second, suited, isDealer, value);
+            } else {
+                table.setValue(first, isDealer, value);
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Writes this table in the CSV format described above.
+     *
+     * @param out where the table will be written
+     */
+    public void write(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.println("players,dealer,rank1,rank2,suited,value");
+        for (boolean isDealer : new boolean[] { true, false }) {
+            for (int low = 0; low < NUM_RANKS; low++) {
+                for (int high = low; high < NUM_RANKS; high++) {
+                    writer.printf(Locale.ROOT, "2,%b,%d,%d,false,%.4f%n", isDealer, low + 1,
+                            high + 1, getValue(low, high, false, isDealer));
+                    if (low != high) {
+                        writer.printf(Locale.ROOT, "2,%b,%d,%d,true,%.4f%n", isDealer, low + 1,
+                                high + 1, getValue(low, high, true, isDealer));
+                    }
+                }
+            }
+        }
+
+        for (boolean isDealer : new boolean[] { true, false }) {
+            for (int rank = 0; rank < NUM_RANKS; rank++) {
+                writer.printf(Locale.ROOT, "3,%b,%d,0,false,%.4f%n", isDealer, rank + 1,
+                        getValue(rank, isDealer));
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Returns the expected crib score in a two-player game when the given
+     * two cards are discarded.
+     *
+     * @param first the first discarded card
+     * @param second the second discarded card
+     * @param isDealer true if the discarding player owns the crib
+     * @return the expected score of the crib
+     */
+    public double cribValue(Card first, Card second, boolean isDealer) {
+        return cribValue(new int[] { CardMask.indexOf(first),
+                CardMask.indexOf(second) }, isDealer);
+    }
+
+    /**
+     * Returns the expected crib score when the cards with the given indices
+     * are discarded. Two cards are looked up as a two-player discard and a
+     * single card as a three-player discard.
+     *
+     * @param discards the indices of the discarded cards
+     * @param isDealer true if the discarding player owns the crib
+     * @return the expected score of the crib
+     */
+    public double cribValue(int[] discards, boolean isDealer) {
+        if (discards.length == 1) {
+            return getValue(CardMask.rankOf(discards[0]), isDealer);
+        } else if (discards.length != 2) {
+            throw new IllegalArgumentException("Must discard one or two cards");
+        }
+
+        int first = CardMask.rankOf(discards[0]);
+        int second = CardMask.rankOf(discards[1]);
+        boolean suited = CardMask.suitOf(discards[0]) == CardMask.suitOf(discards[1]);
+        return getValue(Math.min(first, second), Math.max(first, second),
+                suited, isDealer);
+    }
+
+    /**
+     * Returns the stored value of a two-player discard with the given ranks
+     * (0 = ace).
+     */
+    public double getValue(int low, int high, boolean suited, boolean isDealer) {
+        return suited ? twoPlayerValues[role(isDealer)][high][low]
+                : twoPlayerValues[role(isDealer)][low][high];
+    }
+
+    /**
+     * Sets the stored value of a two-player discard with the given ranks
+     * (0 = ace).
+     */
+    public void setValue(int low, int high, boolean suited, boolean isDealer,
+            double value) {
+        if (low > high) {
+            int temp = low;
+            low = high;
+            high = temp;
+        }
+
+        if (suited && low == high) {
+            throw new IllegalArgumentException("Cards of the same rank cannot be suited");
+        } else if (suited) {
+            twoPlayerValues[role(isDealer)][high][low] = value;
+        } else {
+            twoPlayerValues[role(isDealer)][low][high] = value;
+        }
+    }
+
+    /** Returns the stored value of a three-player discard (0 = ace). */
+    public double getValue(int rank, boolean isDealer) {
+        return threePlayerValues[role(isDealer)][rank];
+    }
+
+    /** Sets the stored value of a three-player discard (0 = ace). */
+    public void setValue(int rank, boolean isDealer, double value) {
+        threePlayerValues[role(isDealer)][rank] = value;
+    }
+
+    private static int role(boolean isDealer) {
+        return isDealer ? DEALER : NON_DEALER;
+    }
+}
@@ -0,0 +1,235 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.game.CribbageScoreTable;
+
+/**
+ * Builds a CribValueTable by simulating deals. For every discard and role,
+ * the rest of the deal is drawn at random and the other players choose their
+ * own discards the way SmartPlayer does (maximizing expected hand score plus
+ * or minus expected crib score). The crib is then scored against every
+ * remaining starter card. The offsuit and suited discards of each pair of
+ * ranks are played out on the same deals. Discards are simulated in
+ * parallel across all available cores, each with its own seeded random
+ * number generator so that builds are reproducible.
+ *
+ *     java -cp cribbage.jar dev.wdrbork.cribbage.logic.game.ai.CribValueTableBuilder crib-values.csv [deals]
+ */
+public class CribValueTableBuilder {
+    private static final int NUM_RANKS = CardMask.NUM_RANKS;
+    private static final int HAND_SIZE = 4;
+    private static final int DEFAULT_DEALS = 10000;
+    private static final long SEED = 121;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: CribValueTableBuilder <output file> [deals per discard]");
+            return;
+        }
+
+        int deals = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEALS;
+        long start = System.currentTimeMillis();
+        CribValueTable table = build(deals);
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[0]))) {
+            table.write(out);
+        }
+        System.out.println("Built table in "
+                + (System.currentTimeMillis() - start) / 1000 + " seconds");
+    }
+
+    /**
+     * Simulates the given number of deals for every discard and role and
+     * returns the average crib scores.
+     *
+     * @param deals the number of deals to simulate for each table entry
+     * @return the resulting table
+     */
+    public static CribValueTable build(int deals) {
+        CribValueTable table = new CribValueTable();
+
+        // Two players: every pair of ranks and both roles. The offsuit and 
+        // suited discards of a pair of ranks are simulated together (see 
+        // simulateTwoPlayer())
+        IntStream.range(0, 2 * NUM_RANKS * NUM_RANKS).parallel().forEach(entry -> {
+            boolean isDealer = entry < NUM_RANKS * NUM_RANKS;
+            int low = (entry / NUM_RANKS) % NUM_RANKS;
+            int high = entry % NUM_RANKS;
+            if (low > high) return;
+
+            SplittableRandom r = new SplittableRandom(SEED + entry);
+            double[] values = simulateTwoPlayer(low, high, isDealer, deals, r);
+            table.setValue(low, high, false, isDealer, values[0]);
+            if (low != high) {
+                table.setValue(low, high, true, isDealer, values[1]);
+            }
+        });
+
+        // Three players: every rank and both roles
+        IntStream.range(0, 2 * NUM_RANKS).parallel().forEach(entry -> {
+            boolean isDealer = entry < NUM_RANKS;
+            int rank = entry % NUM_RANKS;
+            SplittableRandom r = new SplittableRandom(SEED - entry - 1);
+            table.setValue(rank, isDealer, simulateThreePlayer(
+                    CardMask.indexOf(rank, 0), isDealer, deals, r));
+        });
+
+        return table;
+    }
+
+    /**
+     * Returns the average crib scores over the given number of two-player 
+     * deals in which a player sends a card of each of the given ranks to the 
+     * crib: first when the cards are offsuit, then when they are suited. If 
+     * the ranks are the same, only the first value is simulated.
+     *
+     * The two discards are played out on the same deals, with the suits of 
+     * the high rank swapped, so that they only differ where the suits of the 
+     * discards matter. Otherwise the difference between them, which is 
+     * worth far less than a point, would be lost in the noise of the deals.
+     */
+    static double[] simulateTwoPlayer(int low, int high, boolean isDealer,
+            int deals, SplittableRandom r) {
+        // Suits are interchangeable, so use clubs and diamonds
+        int[] offsuit = { CardMask.indexOf(low, 0), CardMask.indexOf(high, 1) };
+        int[] suited = { CardMask.indexOf(low, 0), CardMask.indexOf(high, 0) };
+        long discarded = CardMask.bit(offsuit[0]) | CardMask.bit(offsuit[1]);
+
+        double[] totals = new double[2];
+        for (int deal = 0; deal < deals; deal++) {
+            int[] deck = shuffledDeck(discarded, r);
+            totals[0] += simulateTwoPlayerDeal(offsuit, isDealer, deck);
+            if (low == high) continue;
+
+            // The suited discard leaves the high diamond in the deck where 
+            // the offsuit discard left the high club
+            for (int i = 0; i < deck.length; i++) {
+                if (deck[i] == suited[1]) deck[i] = offsuit[1];
+            }
+            totals[1] += simulateTwoPlayerDeal(suited, isDealer, deck);
+        }
+
+        return new double[] { totals[0] / deals, totals[1] / deals };
+    }
+
+    /**
+     * Returns the average crib score of a two-player deal in which a player 
+     * sends the given cards to the crib and the rest of the deck is in the 
+     * given order.
+     */
+    private static double simulateTwoPlayerDeal(int[] discards, boolean isDealer, int[] deck) {
+        // The rest of this player's hand (the first four cards) only
+        // matters because those cards cannot go to the opponent or be
+        // the starter card
+        int[] opponent = new int[6];
+        System.arraycopy(deck, HAND_SIZE, opponent, 0, opponent.length);
+
+        int[] opponentDiscards = chooseDiscards(opponent, !isDealer);
+        int[] crib = { discards[0], discards[1], opponentDiscards[0],
+                opponentDiscards[1] };
+        return averageOverStarters(crib, deck, HAND_SIZE + opponent.length);
+    }
+
+    /**
+     * Returns the average crib score over the given number of three-player
+     * deals in which a player sends the given card to the crib. If the
+     * player is not the dealer, the first opponent deals.
+     */
+    static double simulateThreePlayer(int discard, boolean isDealer,
+            int deals, SplittableRandom r) {
+        double total = 0;
+        for (int deal = 0; deal < deals; deal++) {
+            int[] deck = shuffledDeck(CardMask.bit(discard), r);
+            int next = HAND_SIZE;
+
+            int[] crib = new int[HAND_SIZE];
+            crib[0] = discard;
+            for (int opponent = 0; opponent < 2; opponent++) {
+                int[] hand = new int[5];
+                System.arraycopy(deck, next, hand, 0, hand.length);
+                next += hand.length;
+
+                boolean ownsCrib = !isDealer && opponent == 0;
+                crib[opponent + 1] = chooseDiscards(hand, ownsCrib)[0];
+            }
+
+            // One card from the deck starts out in the crib
+            crib[3] = deck[next++];
+            total += averageOverStarters(crib, deck, next);
+        }
+
+        return total / deals;
+    }
+
+    /**
+     * Returns the cards a SmartPlayer would discard from the given dealt
+     * cards (two cards from a six-card hand, one card from a five-card hand).
+     *
+     * @param dealt the indices of the dealt cards
+     * @param isDealer true if the player owns the crib
+     * @return the indices of the discarded cards
+     */
+    static int[] chooseDiscards(int[] dealt, boolean isDealer) {
+        long seen = 0L;
+        for (int card : dealt) seen |= CardMask.bit(card);
+
+        int numDiscards = dealt.length - HAND_SIZE;
+        int[] best = null;
+        double bestValue = -Double.MAX_VALUE;
+        int[] keep = new int[HAND_SIZE];
+        int[] discards = new int[numDiscards];
+
+        // Each subset of positions to discard is a bitmask over the hand
+        for (int subset = 0; subset < (1 << dealt.length); subset++) {
+            if (Integer.bitCount(subset) != numDiscards) continue;
+
+            int k = 0;
+            int d = 0;
+            for (int i = 0; i < dealt.length; i++) {
+                if ((subset & (1 << i)) != 0) {
+                    discards[d++] = dealt[i];
+                } else {
+                    keep[k++] = dealt[i];
+                }
+            }
+
+            double value = CribEvaluator.expectedHandScore(seen, keep);
+            double cribValue = CribEvaluator.expectedCribScore(seen, discards);
+            value += isDealer ? cribValue : -cribValue;
+            if (value > bestValue) {
+                bestValue = value;
+                best = discards.clone();
+            }
+        }
+
+        return best;
+    }
+
+    // Scores the crib against every card in the deck from the given
+    // position onward
+    private static double averageOverStarters(int[] crib, int[] deck, int from) {
+        int total = 0;
+        for (int i = from; i < deck.length; i++) {
+            total += CribbageScoreTable.score(crib, deck[i], true);
+        }
+        return (double) total / (deck.length - from);
+    }
+
+    // Returns every card not in the given mask in a random order
+    private static int[] shuffledDeck(long excluded, SplittableRandom r) {
+        int[] deck = CardMask.indicesOf(~excluded & CardMask.FULL_DECK);
+        for (int i = deck.length - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            int temp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = temp;
+        }
+        return deck;
+    }
+}
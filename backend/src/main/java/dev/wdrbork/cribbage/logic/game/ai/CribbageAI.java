@@ -15,6 +15,17 @@ public interface CribbageAI {
      */
     public CribbageHand choosePlayingHand();
 
+    /**
+     * Same as choosePlayingHand(), but chooses from the given dealt cards 
+     * instead of reading them from the game. The game state is not accessed, 
+     * so the hand can be chosen in the background while the game continues.
+     * 
+     * @param dealt the five or six cards dealt to the AI
+     * @param isDealer true if the AI owns the crib
+     * @return the four-card hand that will be used for the rest of the round
+     */
+    public CribbageHand choosePlayingHand(CribbageHand dealt, boolean isDealer);
+
     /**
      * Choose a card from the remaining cards in the AI's hand with the intent 
      * of playing it in the second stage.
@@ -0,0 +1,114 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.wdrbork.cribbage.logic.cache.LruCache;
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+
+/**
+ * Evaluates every keep of a dealt hand for players who want advice rather 
+ * than a decision. Uses the discard table when there is one and the crib 
+ * value table's estimates otherwise, without refining them, so that an
+ * evaluation never costs more than scoring each keep once. Hands that only 
+ * differ by a relabeling of suits have the same evaluations, so they are 
+ * cached under the canonical form of the hand and translated back to the 
+ * cards that were actually dealt.
+ */
+public class DiscardCoach {
+    private static final int CACHE_CAPACITY = 1 << 14;
+
+    private static DiscardCoach defaultCoach;
+
+    private final DiscardSearch search;
+    private final LruCache<Long, List<KeepEvaluation>> cache =
+            new LruCache<>(CACHE_CAPACITY);
+
+    /**
+     * Creates a coach that uses the given tables.
+     *
+     * @param discardTable the discard table, or null if there is none
+     * @param cribValueTable the crib value table, or null to compute crib 
+     *                       values exactly (which is much slower)
+     */
+    public DiscardCoach(DiscardTable discardTable, CribValueTable cribValueTable) {
+        this.search = new DiscardSearch(discardTable, cribValueTable, false);
+    }
+
+    /**
+     * Returns a coach that uses the default discard and crib value tables. 
+     * The coach, and therefore its cache, is shared by every caller.
+     *
+     * @return the default coach
+     */
+    public static synchronized DiscardCoach getDefault() {
+        if (defaultCoach == null) {
+            defaultCoach = new DiscardCoach(DiscardTable.getDefault(),
+                    CribValueTable.getDefault());
+        }
+        return defaultCoach;
+    }
+
+    /**
+     * Evaluates every keep of the given dealt hand, ordered from the highest
+     * overall value to the lowest.
+     *
+     * @param dealt the five or six cards dealt to a player
+     * @param isDealer true if the player owns the crib
+     * @return the evaluation of each keep, using the cards in dealt
+     * @throws IllegalArgumentException if the hand does not have five or six 
+     *                                  cards
+     */
+    public List<KeepEvaluation> evaluate(CribbageHand dealt, boolean isDealer) {
+        if (dealt.size() != 5 && dealt.size() != 6) {
+            throw new IllegalArgumentException("Hand must have five or six cards");
+        }
+
+        long mask = CardMask.maskOf(dealt);
+        int[] order = CardMask.canonicalSuitOrder(mask);
+        long canonical = CardMask.permuteSuits(mask, order);
+        List<KeepEvaluation> evaluations = cache.get(
+                (canonical << 1) | (isDealer ? 1 : 0),
+                key -> search.search(handOf(canonical), isDealer, Long.MAX_VALUE));
+
+        int[] inverse = new int[order.length];
+        for (int suit = 0; suit < order.length; suit++) {
+            inverse[order[suit]] = suit;
+        }
+
+        List<KeepEvaluation> translated = new ArrayList<KeepEvaluation>();
+        for (KeepEvaluation evaluation : evaluations) {
+            long keepMask = CardMask.permuteSuits(
+                    CardMask.maskOf(evaluation.getKeep()), inverse);
+            CribbageHand keep = new CribbageHand();
+            Deck discards = new Deck();
+            for (Card card : dealt.getCards()) {
+                if ((keepMask & CardMask.bit(CardMask.indexOf(card))) != 0) {
+                    keep.addCard(card);
+                } else {
+                    discards.addCard(card);
+                }
+            }
+            translated.add(new KeepEvaluation(keep, discards, isDealer,
+                    evaluation.getHandValue(), evaluation.getCribValue(),
+                    evaluation.isExact()));
+        }
+        return translated;
+    }
+
+    /** Returns the cache of evaluations of canonical hands. */
+    public LruCache<Long, List<KeepEvaluation>> cache() {
+        return cache;
+    }
+
+    private static CribbageHand handOf(long mask) {
+        CribbageHand hand = new CribbageHand();
+        for (int idx : CardMask.indicesOf(mask)) {
+            hand.addCard(CardMask.cardAt(idx));
+        }
+        return hand;
+    }
+}
@@ -0,0 +1,133 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+
+/**
+ * Evaluates every possible keep of a dealt hand in stages, so that a
+ * reasonable answer is always available even if the evaluation runs out of
+ * time:
+ *
+ * 1. If the hand is in the discard table, every keep is looked up and the
+ *    search is done.
+ * 2. Otherwise, each keep gets its exact expected hand score plus an
+ *    estimated crib score from the crib value table. This is cheap and is
+ *    always completed.
+ * 3. Keeps are then refined with the exact crib score from CribEvaluator,
+ *    best estimate first, until every keep is exact or the deadline passes.
+ *
+ * Keeps that were not refined before the deadline keep their estimates and
+ * their place in the estimated order, behind the refined keeps, which are
+ * ordered by their exact values.
+ */
+public class DiscardSearch {
+    private static final int HAND_SIZE = 4;
+
+    private final DiscardTable discardTable;
+    private final CribValueTable cribValueTable;
+    private final boolean refine;
+
+    /**
+     * Creates a search that uses the given tables when they are available.
+     *
+     * @param discardTable the discard table, or null if there is none
+     * @param cribValueTable the crib value table used for estimates, or null
+     *                       to skip straight to exact crib scores
+     * @param refine true if estimates should be replaced with exact crib
+     *               scores, false to keep the crib value table's values
+     */
+    public DiscardSearch(DiscardTable discardTable,
+            CribValueTable cribValueTable, boolean refine) {
+        this.discardTable = discardTable;
+        this.cribValueTable = cribValueTable;
+        this.refine = refine || cribValueTable == null;
+    }
+
+    /**
+     * Evaluates every keep of the given dealt hand, stopping refinement once
+     * System.nanoTime() passes the given deadline.
+     *
+     * @param dealt the five or six cards dealt to a player
+     * @param ownsCrib true if the player is the dealer
+     * @param deadline the System.nanoTime() value after which no further
+     *                 refinement is done
+     * @return every keep, ordered from the highest value to the lowest
+     */
+    public List<KeepEvaluation> search(CribbageHand dealt, boolean ownsCrib,
+            long deadline) {
+        if (dealt.size() <= HAND_SIZE) {
+            throw new IllegalArgumentException("Hand must have more than 4 cards");
+        }
+
+        if (discardTable != null) {
+            List<KeepEvaluation> evaluations = discardTable.evaluate(dealt, ownsCrib);
+            if (evaluations != null) {
+                Collections.sort(evaluations);
+                return evaluations;
+            }
+        }
+
+        // The only cards this player knows about are the ones they were dealt
+        long seen = CardMask.maskOf(dealt);
+        List<KeepEvaluation> evaluations = new ArrayList<KeepEvaluation>();
+        int numDiscards = dealt.size() - HAND_SIZE;
+
+        // Each subset of positions to discard is a bitmask over the hand
+        for (int subset = 0; subset < (1 << dealt.size()); subset++) {
+            if (Integer.bitCount(subset) != numDiscards) continue;
+
+            CribbageHand keep = new CribbageHand();
+            Deck discards = new Deck();
+            for (int i = 0; i < dealt.size(); i++) {
+                Card card = dealt.getCard(i);
+                if ((subset & (1 << i)) != 0) {
+                    discards.addCard(card);
+                } else {
+                    keep.addCard(card);
+                }
+            }
+
+            double handValue = CribEvaluator.expectedHandScore(seen,
+                    CardMask.indicesOf(keep));
+            if (cribValueTable != null) {
+                double cribValue = cribValueTable.cribValue(
+                        CardMask.indicesOf(discards), ownsCrib);
+                evaluations.add(new KeepEvaluation(keep, discards, ownsCrib,
+                        handValue, cribValue, false));
+            } else {
+                double cribValue = CribEvaluator.expectedCribScore(seen,
+                        CardMask.indicesOf(discards));
+                evaluations.add(new KeepEvaluation(keep, discards, ownsCrib,
+                        handValue, cribValue, true));
+            }
+        }
+        Collections.sort(evaluations);
+
+        if (refine) {
+            int refined = 0;
+            for (KeepEvaluation evaluation : evaluations) {
+                if (System.nanoTime() - deadline > 0) break;
+                if (!evaluation.isExact()) {
+                    evaluation.refine(CribEvaluator.expectedCribScore(seen,
+                            CardMask.indicesOf(evaluation.getDiscards())));
+                }
+                refined++;
+            }
+
+            // Exact crib values assume the other players discard at random, 
+            // while the table's estimates model their choices, so the two 
+            // are never compared. The refined keeps are the best estimated 
+            // ones, so they are reordered among themselves and stay ahead of 
+            // the rest
+            Collections.sort(evaluations.subList(0, refined));
+        }
+
+        return evaluations;
+    }
+}
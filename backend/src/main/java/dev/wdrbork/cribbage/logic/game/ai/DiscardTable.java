@@ -0,0 +1,213 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+
+/**
+ * A precomputed table holding the expected value of every possible keep for
+ * every six-card hand in a two-player game. Hands that only differ by a
+ * relabeling of suits have the same expected values, so only canonical
+ * hands (see CardMask.canonicalize()) are stored.
+ *
+ * The table is a binary file built by DiscardTableBuilder and memory-mapped
+ * when opened, so it does not take up heap space. The file consists of a
+ * header, the canonical hands as sorted 64-bit masks, and then, for each
+ * hand, the expected hand score and expected crib score of each of its 15
+ * keeps, stored as 16-bit thousandths of a point. Keep k discards the cards
+ * at positions DISCARDS[k] of the canonical hand sorted by card index.
+ */
+public class DiscardTable {
+    public static final String TABLE_PROPERTY = "cribbage.discardTable";
+    public static final int HAND_SIZE = 6;
+    public static final int KEEPS = 15;
+
+    static final int MAGIC = 0x43444554;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final double SCALE = 1000.0;
+    static final int[][] DISCARDS = new int[KEEPS][];
+
+    static {
+        int keep = 0;
+        for (int i = 0; i < HAND_SIZE; i++) {
+            for (int j = i + 1; j < HAND_SIZE; j++) {
+                DISCARDS[keep++] = new int[] { i, j };
+            }
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(DiscardTable.class);
+
+    private static DiscardTable defaultTable;
+    private static boolean defaultLoaded;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int valuesOffset;
+
+    private DiscardTable(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a discard table");
+        }
+
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.valuesOffset = HEADER_BYTES + size * Long.BYTES;
+    }
+
+    /**
+     * Memory-maps the discard table stored at the given path.
+     *
+     * @param path the location of the table
+     * @return the opened table
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a discard table
+     */
+    public static DiscardTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new DiscardTable(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the table located at the path given by the cribbage.discardTable
+     * system property, or null if the property is not set or the table
+     * cannot be opened, in which case a warning is logged and keeps are
+     * computed instead. The table is only opened once.
+     *
+     * @return the default discard table, or null if there is none
+     */
+    public static synchronized DiscardTable getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            String location = System.getProperty(TABLE_PROPERTY);
+            if (location != null && Files.isReadable(Paths.get(location))) {
+                try {
+                    defaultTable = open(Paths.get(location));
+                } catch (IOException | IllegalArgumentException e) {
+                    log.warn("Could not open discard table {}: {}", location, e.getMessage());
+                }
+            }
+        }
+
+        return defaultTable;
+    }
+
+    /** Returns the number of canonical hands in this table. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the expected values of every keep for the given canonical
+     * hand. The expected hand score and expected crib score of keep k are
+     * written to handValues[k] and cribValues[k].
+     *
+     * @param canonicalHand a canonical six-card hand
+     * @param handValues an array of length 15 to hold the hand values
+     * @param cribValues an array of length 15 to hold the crib values
+     * @return true if the hand is in the table, false otherwise
+     */
+    public boolean lookup(long canonicalHand, double[] handValues,
+            double[] cribValues) {
+        int row = find(canonicalHand);
+        if (row < 0) {
+            return false;
+        }
+
+        int offset = valuesOffset + row * KEEPS * 2 * Short.BYTES;
+        for (int keep = 0; keep < KEEPS; keep++) {
+            handValues[keep] = buffer.getShort(offset) / SCALE;
+            cribValues[keep] = buffer.getShort(offset + Short.BYTES) / SCALE;
+            offset += 2 * Short.BYTES;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the stored values of all 15 keeps of the given six-card hand,
+     * or null if the hand is not in this table.
+     *
+     * @param dealt the six cards dealt to a player
+     * @param isDealer true if the player owns the crib, false otherwise
+     * @return the value of each keep, or null if the hand is not in the table
+     */
+    public List<KeepEvaluation> evaluate(CribbageHand dealt, boolean isDealer) {
+        if (dealt.size() != HAND_SIZE) {
+            return null;
+        }
+
+        long mask = CardMask.maskOf(dealt);
+        int[] order = CardMask.canonicalSuitOrder(mask);
+        long canonical = CardMask.permuteSuits(mask, order);
+        double[] handValues = new double[KEEPS];
+        double[] cribValues = new double[KEEPS];
+        if (!lookup(canonical, handValues, cribValues)) {
+            return null;
+        }
+
+        // Translate the positions of the canonical hand back to the dealt
+        // cards. Suits only get relabeled, so the i-th canonical card is the
+        // dealt card with the same rank whose suit maps to the same suit
+        int[] canonicalCards = CardMask.indicesOf(canonical);
+        Card[] dealtCards = new Card[HAND_SIZE];
+        for (Card card : dealt.getCards()) {
+            int idx = CardMask.indexOf(card);
+            int canonicalIdx = CardMask.indexOf(CardMask.rankOf(idx),
+                    order[CardMask.suitOf(idx)]);
+            for (int i = 0; i < HAND_SIZE; i++) {
+                if (canonicalCards[i] == canonicalIdx) dealtCards[i] = card;
+            }
+        }
+
+        List<KeepEvaluation> evaluations = new ArrayList<KeepEvaluation>(KEEPS);
+        for (int keep = 0; keep < KEEPS; keep++) {
+            CribbageHand playingHand = new CribbageHand(dealt);
+            Deck discards = new Deck();
+            for (int position : DISCARDS[keep]) {
+                playingHand.removeCard(dealtCards[position]);
+                discards.addCard(dealtCards[position]);
+            }
+            evaluations.add(new KeepEvaluation(playingHand, discards, isDealer,
+                    handValues[keep], cribValues[keep], true));
+        }
+
+        return evaluations;
+    }
+
+    // Binary searches the sorted hands for the given hand. Returns its row,
+    // or -1 if it is not present
+    private int find(long canonicalHand) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long key = buffer.getLong(HEADER_BYTES + mid * Long.BYTES);
+            if (key < canonicalHand) {
+                low = mid + 1;
+            } else if (key > canonicalHand) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+}
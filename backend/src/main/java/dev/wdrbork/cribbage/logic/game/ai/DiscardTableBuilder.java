@@ -0,0 +1,125 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+
+/**
+ * Builds the table read by DiscardTable. Every canonical six-card hand is
+ * evaluated with CribEvaluator, spread across all available cores. Building
+ * the full table takes several minutes, so it is meant to be run offline:
+ *
+ *     java -cp cribbage.jar dev.wdrbork.cribbage.logic.game.ai.DiscardTableBuilder discard-table.bin
+ *
+ * The resulting file can then be used by passing
+ * -Dcribbage.discardTable=discard-table.bin to the server.
+ */
+public class DiscardTableBuilder {
+    private static final int KEEPS = DiscardTable.KEEPS;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: DiscardTableBuilder <output file>");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long[] hands = canonicalHands();
+        System.out.println("Found " + hands.length + " canonical hands");
+
+        build(hands, Paths.get(args[0]));
+        System.out.println("Built table in "
+                + (System.currentTimeMillis() - start) / 1000 + " seconds");
+    }
+
+    /**
+     * Returns every canonical six-card hand in increasing order.
+     *
+     * @return the canonical six-card hands as masks
+     */
+    public static long[] canonicalHands() {
+        long[] hands = new long[1 << 20];
+        int found = 0;
+
+        // Step through every 52-bit mask with six bits set in increasing
+        // order (Gosper's hack)
+        long mask = (1L << DiscardTable.HAND_SIZE) - 1;
+        while (mask <= CardMask.FULL_DECK) {
+            if (CardMask.canonicalize(mask) == mask) {
+                if (found == hands.length) {
+                    hands = Arrays.copyOf(hands, hands.length * 2);
+                }
+                hands[found++] = mask;
+            }
+
+            long lowest = mask & -mask;
+            long ripple = mask + lowest;
+            mask = (((ripple ^ mask) >>> 2) / lowest) | ripple;
+        }
+
+        return Arrays.copyOf(hands, found);
+    }
+
+    /**
+     * Evaluates every keep of the given canonical hands and writes the
+     * results to a table at the given path.
+     *
+     * @param hands canonical six-card hands in increasing order
+     * @param output the location of the table
+     * @throws IOException if the table cannot be written
+     */
+    public static void build(long[] hands, Path output) throws IOException {
+        for (int i = 1; i < hands.length; i++) {
+            if (hands[i - 1] >= hands[i]) {
+                throw new IllegalArgumentException("Hands must be sorted and unique");
+            }
+        }
+
+        short[] values = new short[hands.length * KEEPS * 2];
+        IntStream.range(0, hands.length).parallel().forEach(
+                row -> evaluate(hands[row], values, row * KEEPS * 2));
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(DiscardTable.MAGIC);
+            out.writeInt(DiscardTable.VERSION);
+            out.writeInt(hands.length);
+            out.writeInt(KEEPS);
+            for (long hand : hands) {
+                out.writeLong(hand);
+            }
+            for (short value : values) {
+                out.writeShort(value);
+            }
+        }
+    }
+
+    // Writes the expected hand and crib score of each keep of the given hand
+    // into values, starting at the given offset
+    private static void evaluate(long hand, short[] values, int offset) {
+        int[] cards = CardMask.indicesOf(hand);
+        int[] kept = new int[DiscardTable.HAND_SIZE - 2];
+        for (int keep = 0; keep < KEEPS; keep++) {
+            int[] discards = DiscardTable.DISCARDS[keep];
+            int k = 0;
+            for (int i = 0; i < cards.length; i++) {
+                if (i != discards[0] && i != discards[1]) {
+                    kept[k++] = cards[i];
+                }
+            }
+
+            double handValue = CribEvaluator.expectedHandScore(hand, kept);
+            double cribValue = CribEvaluator.expectedCribScore(hand,
+                    cards[discards[0]], cards[discards[1]]);
+            values[offset++] = (short) Math.round(handValue * DiscardTable.SCALE);
+            values[offset++] = (short) Math.round(cribValue * DiscardTable.SCALE);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.MoveResult;
+
+/**
+ * A fast AI that does not search. Keeps are looked up in the discard table,
+ * or estimated with the crib value table if the hand is not in it, and each
+ * card played is the one that scores the most points right away. Much
+ * weaker than SmartPlayer, but every decision takes microseconds, so
+ * SmartPlayer falls back on it when the server is overloaded.
+ */
+public class GreedyPlayer implements CribbageAI {
+    private static final int HAND_SIZE = 4;
+
+    private CribbageManager gameState;
+    private int pid;
+    private DiscardSearch discardSearch;
+
+    public GreedyPlayer(CribbageManager gameState, int pid) {
+        int numPlayers = gameState.numPlayers();
+        if (numPlayers != 2 && numPlayers != 3) {
+            throw new IllegalArgumentException("Must have either 2 or 3 players");
+        } else if (pid < 0 || pid >= numPlayers) {
+            throw new IllegalArgumentException("PID is invalid, must be between 0 and " + numPlayers);
+        }
+
+        this.gameState = gameState;
+        this.pid = pid;
+        this.discardSearch = new DiscardSearch(DiscardTable.getDefault(),
+                CribValueTable.getDefault(), false);
+    }
+
+    public CribbageHand choosePlayingHand() {
+        if (gameState.viewHand(pid).size() <= HAND_SIZE) {
+            // Playing hand has already been chosen
+            return gameState.getHand(pid);
+        }
+
+        return choosePlayingHand(gameState.getHand(pid), gameState.dealer() == pid);
+    }
+
+    public CribbageHand choosePlayingHand(CribbageHand dealt, boolean isDealer) {
+        if (dealt.size() <= HAND_SIZE) {
+            return new CribbageHand(dealt);
+        }
+
+        // A deadline that has already passed skips refinement
+        return discardSearch.search(dealt, isDealer, System.nanoTime())
+                .get(0).getKeep();
+    }
+
+    /**
+     * Chooses the card that earns the most points when played. Ties go to
+     * cards that do not leave the count at 5 or 21, where any ten-card gives
+     * the next player 15 or 31, and then to the highest card, saving low
+     * cards for later in the round. Returns null if no card can be played.
+     */
+    public Card chooseCard() {
+        if (gameState.gameOver()) {
+            return null;
+        }
+
+        // Each card is tried on a copy of the game and undone afterwards
+        CribbageManager simulator = new CribbageManager(gameState);
+        simulator.setNextPlayer(pid);
+        int start = simulator.mark();
+        int[] points = new int[CribbageManager.ROUND_POINT_CATEGORIES];
+
+        Card best = null;
+        int bestPoints = 0;
+        boolean bestExposed = false;
+        for (Card card : gameState.viewHand(pid)) {
+            if (simulator.tryPlayCard(pid, card, points) != MoveResult.OK) continue;
+
+            int earned = points[0];
+            boolean exposed = simulator.count() == 5 || simulator.count() == 21;
+            simulator.unmakeTo(start);
+
+            if (best == null || earned > bestPoints
+                    || (earned == bestPoints && bestExposed && !exposed)
+                    || (earned == bestPoints && bestExposed == exposed
+                            && card.getRankValue() > best.getRankValue())) {
+                best = card;
+                bestPoints = earned;
+                bestExposed = exposed;
+            }
+        }
+
+        return best;
+    }
+}
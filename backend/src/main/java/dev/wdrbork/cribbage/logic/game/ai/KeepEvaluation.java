@@ -0,0 +1,65 @@
+package dev.wdrbork.cribbage.logic.game.ai;
+
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.Deck;
+
+/**
+ * The expected value of keeping a particular four-card hand out of the cards
+ * a player was dealt. The overall value adds the expected crib score to the
+ * expected hand score if the player owns the crib, and subtracts it
+ * otherwise.
+ */
+public class KeepEvaluation implements Comparable<KeepEvaluation> {
+    private final CribbageHand keep;
+    private final Deck discards;
+    private final boolean ownsCrib;
+    private double handValue;
+    private double cribValue;
+    private boolean exact;
+
+    public KeepEvaluation(CribbageHand keep, Deck discards, boolean ownsCrib,
+            double handValue, double cribValue, boolean exact) {
+        this.keep = keep;
+        this.discards = discards;
+        this.ownsCrib = ownsCrib;
+        this.handValue = handValue;
+        this.cribValue = cribValue;
+        this.exact = exact;
+    }
+
+    public CribbageHand getKeep() { return new CribbageHand(keep); }
+
+    public Deck getDiscards() { return new Deck(discards); }
+
+    public double getHandValue() { return handValue; }
+
+    public double getCribValue() { return cribValue; }
+
+    /** Returns true if the crib value is exact rather than an estimate. */
+    public boolean isExact() { return exact; }
+
+    public double getValue() {
+        return ownsCrib ? handValue + cribValue : handValue - cribValue;
+    }
+
+    /**
+     * Replaces the estimated crib value with an exact one.
+     *
+     * @param cribValue the exact expected crib score
+     */
+    void refine(double cribValue) {
+        this.cribValue = cribValue;
+        this.exact = true;
+    }
+
+    /** Orders evaluations from the highest value to the lowest. */
+    @Override
+    public int compareTo(KeepEvaluation other) {
+        return Double.compare(other.getValue(), getValue());
+    }
+
+    @Override
+    public String toString() {
+        return keep + " (hand = " + handValue + ", crib = " + cribValue + ")";
+    }
+}
@@ -3,12 +3,14 @@ package dev.wdrbork.cribbage.logic.game.ai;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Random;
 import java.util.Set;
 
 import dev.wdrbork.cribbage.logic.cards.*;
 import dev.wdrbork.cribbage.logic.game.*;
+import dev.wdrbork.cribbage.logic.metrics.AIDecisionEvent;
+import dev.wdrbork.cribbage.logic.metrics.EngineMetrics;
 
 // Makes decisions for the AI using Monte Carlo tree search (for more 
 // information on this algorithm, see the following link: 
@@ -16,7 +18,7 @@ import dev.wdrbork.cribbage.logic.game.*;
 // for making decisions during the second stage of play, but may eventually
 // be used for the first stage as well
 public class MCTSAgent {
-    private static final int ITERATIONS = 100000;
+    public static final int DEFAULT_ITERATIONS = 100000;
     private static final int MAX_COUNT = 31;
     private static final int HAND_SIZE = 4;
 
@@ -25,6 +27,13 @@ public class MCTSAgent {
     private int[] lowestPlayableCards;
     private MCTSNode root;
     private int pid;
+    private int iterations;
+
+    // Nodes added to the tree by the current search
+    private int nodes;
+
+    // Source of randomness for rollouts and breaking ties
+    private Random random = new Random();
 
     // Debug fields
     private int loops = 0;
@@ -36,6 +45,23 @@ public class MCTSAgent {
      * @param pid the PID of the AI associated with this agent
      */
     public MCTSAgent(CribbageManager currentState, int pid) {
+        this(currentState, pid, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Constructs an MCTSAgent that runs the given number of iterations of 
+     * the search for each card it selects.
+     * 
+     * @param currentState the current state of some cribbage game
+     * @param pid the PID of the AI associated with this agent
+     * @param iterations the number of iterations to search for
+     */
+    public MCTSAgent(CribbageManager currentState, int pid, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Must search for at least one iteration");
+        }
+
+        this.iterations = iterations;
         gameState = currentState;
         lowestPlayableCards = new int[gameState.numPlayers()];
         this.root = new MCTSNode();
@@ -44,46 +70,78 @@ public class MCTSAgent {
         this.pid = pid;
     }
 
+    /**
+     * Sets the source of randomness used by the search. Two agents given 
+     * generators with the same seed choose the same card from the same game.
+     * 
+     * @param random a random number generator
+     */
+    public void setRandom(Random random) {
+        if (random == null) {
+            throw new NullPointerException("Random is null");
+        }
+        this.random = random;
+    }
+
     public Card selectCard() {
         if (gameState.gameOver()) {
             return null;
         }
 
-        search();
-        MCTSNode bestMove = root.chooseMostExpandedChild();
-        System.out.println("Best card: " + bestMove.playedCard);
+        AIDecisionEvent event = new AIDecisionEvent();
+        event.begin();
+        EngineMetrics.MCTS_SEARCH.record(this::search);
+        MCTSNode bestMove = root.chooseMostExpandedChild(random);
+        if (event.shouldCommit()) {
+            event.gameId = gameState.id();
+            event.seat = pid;
+            event.count = gameState.count();
+            event.iterations = iterations;
+            event.treeSize = nodes;
+            event.chosenCard = String.valueOf(bestMove.playedCard);
+            event.commit();
+        }
         return bestMove.playedCard;
     }
 
     private void search() {
         int searches = 0;
+        nodes = 0;
+
+        // Every iteration starts from the same copy of the game, and its 
+        // moves are undone afterwards rather than copying the game again
+        simulator = new CribbageManager(gameState);
+        
+        // Clear hands that are not this AI's of cards that have not already
+        // been played
+        for (int i = 0; i < simulator.numPlayers(); i++) {
+            if (i != pid) {
+                simulator.clearHandOfUnplayedCards(i);
+            }
+        }
+        int start = simulator.mark();
 
-        while (searches < ITERATIONS) {
+        while (searches < iterations) {
             loops = 0;
             Arrays.fill(lowestPlayableCards, 1);
             MCTSNode selection = nodeSelection();
             int pointsEarned = rollout();
             backup(selection, pointsEarned);
+            simulator.unmakeTo(start);
             searches++;
         }
+
+        EngineMetrics.MCTS_ITERATIONS.increment(searches);
+        EngineMetrics.MCTS_NODES.increment(nodes);
     }
 
     private MCTSNode nodeSelection() {
         MCTSNode curr = root;
-        simulator = new CribbageManager(gameState);
-        
-        // Clear hands that are not this AI's of cards that have not already
-        // been played
-        for (int i = 0; i < simulator.numPlayers(); i++) {
-            if (i != pid) {
-                simulator.clearHandOfUnplayedCards(i);
-            }
-        }
 
         // Stop searching once we find a leaf node
         while (!curr.children.isEmpty()) {
             // Find node with the highest UCT value
-            curr = curr.chooseHighValueChild();
+            curr = curr.chooseHighValueChild(random);
             assert(curr != null);
             simulator.setNextPlayer(curr.pidTurn);
             playCardInSimulation(curr);
@@ -97,7 +155,7 @@ public class MCTSAgent {
         // Generate children for this leaf node, if possible, and select 
         // one of the children for the rollout
         if (expandSelection(curr)) {
-            curr = curr.chooseHighValueChild();
+            curr = curr.chooseHighValueChild(random);
             simulator.setNextPlayer(curr.pidTurn);
             playCardInSimulation(curr);
         }
@@ -107,7 +165,6 @@ public class MCTSAgent {
 
     private int rollout() {
         int pointsEarned = 0;
-        Random r = new Random();
 
         // Fill opponent hands with random cards
         for (int i = 0; i < simulator.numPlayers(); i++) {
@@ -115,7 +172,7 @@ public class MCTSAgent {
 
             // System.out.println("Original hand: " + simulator.getHand(i));
 
-            while (simulator.getHand(i).size() < HAND_SIZE) {
+            while (simulator.viewHand(i).size() < HAND_SIZE) {
                 loops++;
                 if (loops == 1000) {
                     // System.out.println(i);
@@ -125,7 +182,7 @@ public class MCTSAgent {
                     throw new IllegalStateException("Too many loops");
                 }
 
-                int val = r.nextInt(Deck.CARDS_PER_SUIT) + 1;
+                int val = random.nextInt(Deck.CARDS_PER_SUIT) + 1;
                 Rank rank = Card.getRankBasedOnValue(val);
                 Suit suit = getPossibleSuit(rank);
 
@@ -141,7 +198,7 @@ public class MCTSAgent {
 
         // Make sure that every hand has 4 cards
         for (int i = 0; i < simulator.numPlayers(); i++) {
-            assert(simulator.getHand(i).size() == HAND_SIZE);
+            assert(simulator.viewHand(i).size() == HAND_SIZE);
         }
 
         while (!simulator.roundOver()) {
@@ -168,9 +225,8 @@ public class MCTSAgent {
             }
 
             int nextPlayer = simulator.nextToPlayCard();
-            Deck hand = simulator.getHand(nextPlayer);
             List<Card> possibleCards = new ArrayList<Card>();
-            for (Card card : hand.getCards()) {
+            for (Card card : simulator.viewHand(nextPlayer)) {
                 if (simulator.canPlayCard(card)) {
                     possibleCards.add(card);
                 }
@@ -183,7 +239,7 @@ public class MCTSAgent {
                 continue;
             }
 
-            int idx = r.nextInt(possibleCards.size());
+            int idx = random.nextInt(possibleCards.size());
             int[] points = simulator.playCard(nextPlayer, possibleCards.get(idx));
             if (nextPlayer == pid) {
                 pointsEarned += Math.pow(points[0], 2);
@@ -233,15 +289,14 @@ public class MCTSAgent {
             // Expand the tree using this AI's hand
             node.addChildren(expandOtherHand(node));
         }
+        nodes += node.children.size();
 
         return true;
     }
 
     private Set<MCTSNode> expandOwnHand(MCTSNode parent) {
-        Set<MCTSNode> children = new HashSet<MCTSNode>();
-        Deck hand = simulator.getHand(pid);
-
-        for (Card card : hand.getCards()) {
+        Set<MCTSNode> children = new LinkedHashSet<MCTSNode>();
+        for (Card card : simulator.viewHand(pid)) {
             if (!simulator.canPlayCard(card)) {
                 continue;
             }
@@ -265,7 +320,7 @@ public class MCTSAgent {
     }
 
     private Set<MCTSNode> expandOtherHand(MCTSNode parent) {
-        Set<MCTSNode> children = new HashSet<MCTSNode>();
+        Set<MCTSNode> children = new LinkedHashSet<MCTSNode>();
         int nextPid = (parent.pidTurn + 1) % simulator.numPlayers();
         int maxCardPossible = Math.min(10, MAX_COUNT - simulator.count());
 
@@ -273,7 +328,7 @@ public class MCTSAgent {
         // face cards are included in the expansion
         if (maxCardPossible == 10) maxCardPossible = 13;
 
-        if (simulator.getHand(nextPid).size() > HAND_SIZE) {
+        if (simulator.viewHand(nextPid).size() > HAND_SIZE) {
             // System.out.println(simulator.count());
             // System.out.println(nextPid);
             // System.out.println(simulator.getAllHands());
@@ -281,7 +336,7 @@ public class MCTSAgent {
             throw new IllegalStateException("Hand has more than 4 cards");
         }
         
-        if (simulator.getHand(nextPid).size() < HAND_SIZE) {
+        if (simulator.viewHand(nextPid).size() < HAND_SIZE) {
             // System.out.println("Expansion lower bound = " + lowestPlayableCards[nextPid]);
             for (int i = lowestPlayableCards[nextPid]; i <= maxCardPossible; i++) {
                 Rank rank = Card.getRankBasedOnValue(i);
@@ -308,7 +363,7 @@ public class MCTSAgent {
         // If there are cards that cannot be played because they would exceed 
         // the max count of 31, it is possible for this player to call go, so 
         // add a node that signifies this
-        if (simulator.getHand(nextPid).size() == HAND_SIZE
+        if (simulator.viewHand(nextPid).size() == HAND_SIZE
                 || maxCardPossible != 13) {
             MCTSNode child = new MCTSNode(parent);
             child.playedCard = null;
@@ -328,17 +383,9 @@ public class MCTSAgent {
             if (!simulator.cardAlreadyPlayed(testCard)) {
                 // If it has not already been played, look through each hand 
                 // to determine if it is present in one of them
-                boolean inHand = false;
-                for (Deck hand : simulator.getAllHands()) {
-                    if (hand.contains(testCard)) {
-                        inHand = true;
-                        break;
-                    }
-                }
-
                 // If this card is not in any hand, return the suit associated
                 // with it
-                if (!inHand) return suit;
+                if (!simulator.cardInAnyHand(testCard)) return suit;
             }
         }
 
@@ -357,7 +404,7 @@ public class MCTSAgent {
             lowestPlayableCards[curr.pidTurn] = Math.max(lowestPlayable, 
                     MAX_COUNT - simulator.count() + 1);
             // System.out.println("Player " + curr.pidTurn + " calls go on count " + simulator.count());
-            if (simulator.getPlayedCards().get(curr.pidTurn).size() < HAND_SIZE && canResetCount(curr)) {
+            if (simulator.viewPlayedCards(curr.pidTurn).size() < HAND_SIZE && canResetCount(curr)) {
                 if (!simulator.countIs31()) {
                     points[0]++;
                     simulator.awardPointsForGo();
@@ -2,11 +2,13 @@ package dev.wdrbork.cribbage.logic.game.ai;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.metrics.MCTSCandidateEvent;
 
 // Represents a node in a Monte Carlo search tree. Used when deciding what
 // card to play during the second stage of Cribbage
@@ -22,7 +24,8 @@ public class MCTSNode {
     public MCTSNode parent;
 
     // Maps a card rank to the game state (i.e. the node) that follows from 
-    // the playing of a card of that rank 
+    // the playing of a card of that rank. Kept in the order they were added 
+    // so that a seeded search always breaks ties the same way
     public Set<MCTSNode> children;
 
     public MCTSNode() {
@@ -31,7 +34,7 @@ public class MCTSNode {
 
     public MCTSNode(MCTSNode parent) {
         this.parent = parent;
-        this.children = new HashSet<MCTSNode>();
+        this.children = new LinkedHashSet<MCTSNode>();
     }
 
     public void addChildren(Set<MCTSNode> children) {
@@ -39,6 +42,14 @@ public class MCTSNode {
     }
 
     public MCTSNode chooseHighValueChild() {
+        return chooseHighValueChild(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns the child with the highest UCT value, breaking ties with the 
+     * given source of randomness, or null if there are no children.
+     */
+    public MCTSNode chooseHighValueChild(Random random) {
         if (children.isEmpty()) {
             return null;
         }
@@ -56,12 +67,19 @@ public class MCTSNode {
             }
         }
 
-        Random r = new Random();
-        int randomIdx = r.nextInt(selections.size());
+        int randomIdx = random.nextInt(selections.size());
         return selections.get(randomIdx);
     }
 
     public MCTSNode chooseMostExpandedChild() {
+        return chooseMostExpandedChild(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Returns the child with the most rollouts, breaking ties with the given 
+     * source of randomness, or null if there are no children.
+     */
+    public MCTSNode chooseMostExpandedChild(Random random) {
         if (children.isEmpty()) {
             return null;
         }
@@ -70,11 +88,15 @@ public class MCTSNode {
         List<MCTSNode> selections = new ArrayList<MCTSNode>();
         for (MCTSNode child : children) {
             int value = child.numRollouts;
-            System.out.print("Card = " + child.playedCard);
-            System.out.print(", pointsEarned = " + child.pointsEarned);
-            System.out.print(", numRollouts = " + child.numRollouts);
-            System.out.print(", parentVisits = " + child.parent.numRollouts);
-            System.out.println(", UCT = " + child.getUCTValue(UCT_CONSTANT));
+            MCTSCandidateEvent event = new MCTSCandidateEvent();
+            if (event.isEnabled()) {
+                event.card = String.valueOf(child.playedCard);
+                event.pointsEarned = child.pointsEarned;
+                event.rollouts = child.numRollouts;
+                event.parentRollouts = child.parent.numRollouts;
+                event.uct = child.getUCTValue(UCT_CONSTANT);
+                event.commit();
+            }
             if (value > mostRollouts) {
                 selections.clear();
                 selections.add(child);
@@ -84,8 +106,7 @@ public class MCTSNode {
             }
         }
 
-        Random r = new Random();
-        int randomIdx = r.nextInt(selections.size());
+        int randomIdx = random.nextInt(selections.size());
         return selections.get(randomIdx);
     }
 
@@ -44,8 +44,16 @@ public class RandomPlayer implements CribbageAI {
         return hand;
     }
 
+    public CribbageHand choosePlayingHand(CribbageHand dealt, boolean isDealer) {
+        CribbageHand playingHand = new CribbageHand(dealt);
+        while (playingHand.size() > HAND_SIZE) {
+            playingHand.pickCard(rng.nextInt(playingHand.size()));
+        }
+        return playingHand;
+    }
+
     public Card chooseCard() {
-        Deck playedCards = gameState.getPlayedCards().get(pid);
+        List<Card> playedCards = gameState.viewPlayedCards(pid);
         List<Card> availableCards = new ArrayList<Card>();
         for (Card card : hand.getCards()) {
             if (!playedCards.contains(card)) {
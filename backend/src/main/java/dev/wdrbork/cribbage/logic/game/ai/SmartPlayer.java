@@ -2,21 +2,40 @@ package dev.wdrbork.cribbage.logic.game.ai;
 
 import dev.wdrbork.cribbage.logic.cards.*;
 import dev.wdrbork.cribbage.logic.game.*;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Arrays;
+import dev.wdrbork.cribbage.logic.metrics.DiscardEvaluationEvent;
+import dev.wdrbork.cribbage.logic.metrics.EngineMetrics;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AI for a game of cribbage. Calculates the most optimal play at each stage 
  * of the game and suggests that option.
  */
 public class SmartPlayer implements CribbageAI {
-    private static final int TWO_PLAYER_START_SIZE = 6;
-    private static final int THREE_PLAYER_START_SIZE = 5;
-    private static final int HAND_SIZE = 4;
+    private static final long DEFAULT_DISCARD_DEADLINE = 20;
 
     private CribbageManager gameState;
     private int pid;
+
+    // Precomputed keep values for six-card hands; null if unavailable
+    private DiscardTable discardTable;
+
+    // Precomputed crib values for each discard; if null, crib values are 
+    // computed exactly with CribEvaluator
+    private CribValueTable cribValueTable;
+
+    // Time in milliseconds that choosePlayingHand() may spend refining keeps
+    private long discardDeadline = DEFAULT_DISCARD_DEADLINE;
+
+    // Iterations of Monte Carlo tree search used to choose each card
+    private int searchIterations = MCTSAgent.DEFAULT_ITERATIONS;
+
+    // Picks how much of the above budgets each decision gets based on load; 
+    // if null, every decision gets the full budgets
+    private AITierPolicy tierPolicy;
+
+    // Makes the decisions at the heuristic tier
+    private GreedyPlayer greedyPlayer;
     
     public SmartPlayer(CribbageManager gameState, int pid) {
         int numPlayers = gameState.numPlayers();
@@ -28,221 +47,169 @@ public class SmartPlayer implements CribbageAI {
 
         this.gameState = gameState;
         this.pid = pid;
+        this.discardTable = DiscardTable.getDefault();
     }
 
-    public CribbageHand choosePlayingHand() {
-        CribbageHand currentHand = gameState.getHand(pid);
-        if (currentHand.size() < 5) {
-            // Playing hand has already been chosen
-            return currentHand;
-        }
+    /**
+     * Sets the table used to look up the best keep for six-card hands. If 
+     * the table is null or does not contain a hand, the keep is computed 
+     * instead.
+     * 
+     * @param discardTable a discard table, or null to always compute keeps
+     */
+    public void setDiscardTable(DiscardTable discardTable) {
+        this.discardTable = discardTable;
+    }
 
-        Map<CribbageHand, Double> savedCounts = new HashMap<CribbageHand, Double>();
-        boolean isDealer = false;
-        if (gameState.dealer() == pid) isDealer = true;
-        CribbageHand playingHand = maximizePoints(currentHand, isDealer, 
-                new CribbageHand(), 0, savedCounts);
-        return playingHand;
+    /**
+     * Sets the table used to look up the expected crib score of a discard. 
+     * Unlike the exact computation, the table accounts for how opponents 
+     * choose their own discards, but ignores the cards this player keeps.
+     * 
+     * @param cribValueTable a crib value table, or null to compute crib 
+     *                       values exactly (time permitting)
+     */
+    public void setCribValueTable(CribValueTable cribValueTable) {
+        this.cribValueTable = cribValueTable;
     }
 
-    public Card chooseCard() {
-        MCTSAgent agent = new MCTSAgent(gameState, pid);
-        Card card = agent.selectCard();
-        return card;
+    /**
+     * Sets how long choosePlayingHand() may spend refining its estimates 
+     * before settling on the best keep found so far.
+     * 
+     * @param millis the time limit in milliseconds
+     */
+    public void setDiscardDeadline(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Deadline cannot be negative");
+        }
+        this.discardDeadline = millis;
     }
 
-    // Recursively finds the 4-card hand with the most expected points given 
-    // a 6-card hand (6 choose 4). NOTE: Ignores suits in the calculation; see
-    // the runtimes below to understand why this is necessary
-    //
-    // Total long runtime: 15 possible combos of 4 cards * 46 possible starter
-    // cards * 1980 (45 * 44) possible cribs = 1,366,200 iterations
-    // Total short runtime: 15 possible combos * 13 possible starter ranks
-    // * 169 possible cribs (13 * 13) = 32,955 iterations
-    private CribbageHand maximizePoints(CribbageHand original, boolean isDealer,
-            CribbageHand soFar, int idx, Map<CribbageHand, Double> savedCounts) {
-        // If soFar represents a full hand, determine the expected number of 
-        // points and save this information
-        if (soFar.size() == HAND_SIZE) {
-            double bestExpected = findBestPossibleCount(soFar, isDealer);
-            CribbageHand deepCopy = new CribbageHand(soFar);
-            savedCounts.put(deepCopy, bestExpected);
-            return deepCopy;
+    /**
+     * Sets how many iterations of Monte Carlo tree search chooseCard() runs.
+     * Fewer iterations play faster but weaker.
+     * 
+     * @param iterations the number of iterations per card
+     */
+    public void setSearchIterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Must search for at least one iteration");
         }
+        this.searchIterations = iterations;
+    }
 
-        int startSize;
-        if (gameState.numPlayers() == 2) {
-            startSize = TWO_PLAYER_START_SIZE;
-        } else {
-            startSize = THREE_PLAYER_START_SIZE;
+    /**
+     * Sets the policy that picks how much work each decision gets. At the 
+     * reduced tier, keeps are refined for at most the policy's reduced 
+     * deadline and cards are chosen with at most its reduced iterations. At 
+     * the heuristic tier, decisions are made by a GreedyPlayer instead.
+     * 
+     * @param tierPolicy a tier policy, or null to always use the full budgets
+     */
+    public void setTierPolicy(AITierPolicy tierPolicy) {
+        this.tierPolicy = tierPolicy;
+        if (tierPolicy != null && greedyPlayer == null) {
+            greedyPlayer = new GreedyPlayer(gameState, pid);
         }
+    }
 
-        // If we have traversed the entire original hand, or if soFar won't be
-        // able to reach a size of 4, create and save an empty list with a 
-        // negative point value so that it always fails comparisons to other
-        // lists (as seen below)
-        if (idx == startSize 
-                || idx - soFar.size() > startSize - HAND_SIZE) {
-            CribbageHand notApplicable = new CribbageHand();
-            savedCounts.put(notApplicable, -Double.MAX_VALUE);
-            return notApplicable;
+    public CribbageHand choosePlayingHand() {
+        if (gameState.viewHand(pid).size() < 5) {
+            // Playing hand has already been chosen
+            return gameState.getHand(pid);
         }
 
-        // Compare the expected points from including the card at this idx with
-        // the expected points from ignoring it
-        soFar.addCard(original.getCard(idx));
-        CribbageHand includeIdx = 
-                maximizePoints(original, isDealer, soFar, idx + 1, savedCounts);
-        soFar.removeCard(original.getCard(idx));
-        CribbageHand excludeIdx = 
-                maximizePoints(original, isDealer, soFar, idx + 1, savedCounts);
-
-        // Print the expected scores of the hands to be compared
-        // System.out.println(includeIdx + " (expected = " + savedCounts.get(includeIdx) + 
-        //         ") vs. " + excludeIdx + " (expected = " + savedCounts.get(excludeIdx) + 
-        //         ")");      
-        
-        return savedCounts.get(includeIdx) >= savedCounts.get(excludeIdx) ?
-                includeIdx : excludeIdx;
+        return choosePlayingHand(gameState.getHand(pid), gameState.dealer() == pid);
     }
 
-    private double findBestPossibleCount(CribbageHand hand, boolean ownsCrib) {
-        // Use the given hand and the starting hand to infer which cards have 
-        // been sent to the crib
-        CribbageHand currentHand = gameState.getHand(pid);
-        Deck sentToCrib = new Deck();
-        for (Card card : currentHand.getCards()) {
-            if (!hand.contains(card)) {
-                sentToCrib.addCard(card);
-            }
+    public CribbageHand choosePlayingHand(CribbageHand dealt, boolean isDealer) {
+        if (dealt.size() < 5) {
+            return new CribbageHand(dealt);
         }
 
-        double expected = 0.0;
-        int[] counts = rankCounts();
-
-        // Quick computation (ignores suits)
-        for (int i = 1; i <= Deck.CARDS_PER_SUIT; i++) {
-            Card starter = new Card(Suit.SPADE, Card.getRankBasedOnValue(i));
-            for (Suit suit : Suit.values()) {
-                starter = new Card(suit, Card.getRankBasedOnValue(i));
-                if (!hand.contains(starter) && !sentToCrib.contains(starter)) {
-                    break;
-                }
-            }
-            int points = CribbageScoring.count15Combos(hand, starter);
-            points += CribbageScoring.countPairs(hand, starter);
-            points += CribbageScoring.countRuns(hand, starter);
-            points += CribbageScoring.countFlush(hand, starter, false);
-            points += CribbageScoring.countNobs(hand, starter);
-            double cardProbability = (double) counts[i] / 
-                    (StandardDeck.DECK_SIZE - currentHand.size());
-            expected += (double) points * cardProbability;
-
-            if (ownsCrib) {
-                expected += findBestCribScore(sentToCrib, starter) * cardProbability;
-            } else {
-                expected -= findBestCribScore(sentToCrib, starter) * cardProbability;
-            }
+        if (tierPolicy == null) {
+            return EngineMetrics.DISCARD.record(() -> chooseKeep(dealt, isDealer, AITier.FULL));
         }
-
-        return expected;
+        return EngineMetrics.DISCARD.record(() -> tierPolicy.decide(
+                AITierPolicy.Decision.DISCARD, tier -> chooseKeep(dealt, isDealer, tier)));
     }
 
-    private double findBestCribScore(Deck sentToCrib, Card starterCard) {
-        assert(sentToCrib.size() == 2);
-        CribbageHand currentHand = gameState.getHand(pid);
-        double expected = 0.0;
-        int[] counts = rankCounts();
-        counts[starterCard.getRankValue()]--;
-
-        // Quick computation (ignores suits)
-        for (int i = 1; i <= Deck.CARDS_PER_SUIT; i++) {
-            Card thirdCard = new Card(1, 1);
-            for (Suit suit : Suit.values()) {
-                thirdCard = new Card(suit, Card.getRankBasedOnValue(i));
-                if (!thirdCard.equals(starterCard) && 
-                        sentToCrib.addCard(thirdCard)) {
-                    break;
-                }
-            }
-
-            // Find the probability of a card of this rank ending up in the 
-            // crib (e.g. if our 6-card hand contains 4 aces, we should not 
-            // expect there to be another ace in the crib, so the probability 
-            // would be zero)
-            double thirdCardRankProbability = (double) counts[i] / 
-                    (StandardDeck.DECK_SIZE - currentHand.size() - 1);
-
-            // Temporarily decrement the count for this rank
-            counts[i]--;
-
-            for (int j = 1; j <= Deck.CARDS_PER_SUIT; j++) {
-                Card fourthCard = new Card(1, 1);
-                for (Suit suit : Suit.values()) {
-                    fourthCard = new Card(suit, Card.getRankBasedOnValue(j));
-                    if (!fourthCard.equals(starterCard) && 
-                            sentToCrib.addCard(fourthCard)) {
-                        break;
-                    }
-                }
-
-                // If we are already using all four cards of this rank value, \
-                // skip to the next rank
-                if (sentToCrib.size() != 4) continue;
-
-                // Find the expected points from this crib
-                int points = CribbageScoring.count15Combos(sentToCrib, starterCard);
-                points += CribbageScoring.countPairs(sentToCrib, starterCard);
-                points += CribbageScoring.countRuns(sentToCrib, starterCard);
-
-                // Find the probability of a card of this rank ending up in the
-                // crib
-                double fourthCardRankProbability = (double) counts[j] / 
-                        (StandardDeck.DECK_SIZE - currentHand.size() - 2);
-
-                // Add the expected points from this crib to the overall total
-                // (with respect to the probability of this crib occurring)
-                expected += (double) points * 
-                        thirdCardRankProbability * fourthCardRankProbability;
-
-                sentToCrib.removeCard(fourthCard);
-            }
-
-            counts[i]++;
-            sentToCrib.removeCard(thirdCard);
+    private CribbageHand chooseKeep(CribbageHand dealt, boolean isDealer, AITier tier) {
+        switch (tier) {
+            case HEURISTIC:
+                return greedyPlayer.choosePlayingHand(dealt, isDealer);
+            case REDUCED:
+                long deadline = Math.min(discardDeadline, tierPolicy.getReducedDiscardDeadline());
+                return evaluateKeeps(dealt, isDealer, deadline).get(0).getKeep();
+            default:
+                return evaluateKeeps(dealt, isDealer).get(0).getKeep();
         }
+    }
 
-        // If the two cards in the crib are of the same suit, a flush is 
-        // possible, so increase the expected point total of the crib based 
-        // on the probability of the flush occurring
-        if (sentToCrib.getCard(0).getSuit() == sentToCrib.getCard(1).getSuit()) {
-            Suit sharedSuit = sentToCrib.getCard(0).getSuit();
-            int cardsOfSuitAvailable = Deck.CARDS_PER_SUIT;
-            for (Card card : currentHand.getCards()) {
-                if (card.getSuit() == sharedSuit) {
-                    cardsOfSuitAvailable--;
-                }
-            }
-
-            double numerator = (double) cardsOfSuitAvailable * 
-                    (cardsOfSuitAvailable - 1);
-            double denominator = (StandardDeck.DECK_SIZE - currentHand.size() - 1) * 
-                    (StandardDeck.DECK_SIZE - currentHand.size() - 2);
-            double flushProbability = numerator / denominator;
-                                    
-            expected += 4 * flushProbability;
-        }
+    /**
+     * Evaluates every hand this player could keep from the cards they were 
+     * dealt, ordered from the best keep to the worst.
+     * 
+     * @return the evaluation of each keep
+     */
+    public List<KeepEvaluation> evaluateKeeps() {
+        return evaluateKeeps(gameState.getHand(pid), gameState.dealer() == pid);
+    }
 
-        return expected;
+    /**
+     * Evaluates every hand that could be kept from the given dealt cards, 
+     * ordered from the best keep to the worst. Does not read the game state, 
+     * so it is safe to call from another thread.
+     * 
+     * @param dealt the five or six cards dealt to this player
+     * @param isDealer true if this player owns the crib
+     * @return the evaluation of each keep
+     */
+    public List<KeepEvaluation> evaluateKeeps(CribbageHand dealt, boolean isDealer) {
+        return evaluateKeeps(dealt, isDealer, discardDeadline);
     }
 
-    private int[] rankCounts() {
-        int[] counts = new int[Deck.CARDS_PER_SUIT + 1];
-        Arrays.fill(counts, Deck.CARDS_PER_RANK);
-        for (Card card : gameState.getHand(pid).getCards()) {
-            counts[card.getRankValue()]--;
+    private List<KeepEvaluation> evaluateKeeps(CribbageHand dealt, boolean isDealer,
+            long deadlineMillis) {
+        // Without an explicit crib value table, the bundled one only provides
+        // initial estimates, which are refined with exact crib values
+        DiscardSearch search = cribValueTable != null
+                ? new DiscardSearch(discardTable, cribValueTable, false)
+                : new DiscardSearch(discardTable, CribValueTable.getDefault(), true);
+        DiscardEvaluationEvent event = new DiscardEvaluationEvent();
+        event.begin();
+        long deadline = System.nanoTime() 
+                + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        List<KeepEvaluation> evaluations = search.search(dealt, isDealer, deadline);
+        if (event.shouldCommit()) {
+            event.seat = pid;
+            event.dealer = isDealer;
+            event.dealt = dealt.toString();
+            event.keep = evaluations.get(0).getKeep().toString();
+            event.value = evaluations.get(0).getValue();
+            event.exact = evaluations.get(0).isExact();
+            event.commit();
         }
+        return evaluations;
+    }
+
+    public Card chooseCard() {
+        if (tierPolicy == null) {
+            return chooseCard(AITier.FULL);
+        }
+        return tierPolicy.decide(AITierPolicy.Decision.CARD, this::chooseCard);
+    }
 
-        return counts;
+    private Card chooseCard(AITier tier) {
+        switch (tier) {
+            case HEURISTIC:
+                return greedyPlayer.chooseCard();
+            case REDUCED:
+                int iterations = Math.min(searchIterations, tierPolicy.getReducedIterations());
+                return new MCTSAgent(gameState, pid, iterations).selectCard();
+            default:
+                return new MCTSAgent(gameState, pid, searchIterations).selectCard();
+        }
     }
-}
\ No newline at end of file
+}
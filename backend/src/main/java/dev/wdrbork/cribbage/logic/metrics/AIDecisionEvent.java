@@ -0,0 +1,39 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder for each card the AI chooses with Monte 
+ * Carlo tree search. The event lasts from the start of the search to the 
+ * choice, so it can be lined up with GC and CPU samples in a recording.
+ */
+@Name("dev.wdrbork.cribbage.AIDecision")
+@Label("AI Decision")
+@Category({ "Cribbage", "AI" })
+@Description("A card chosen by Monte Carlo tree search")
+public class AIDecisionEvent extends Event {
+    @Label("Game ID")
+    public long gameId;
+
+    @Label("Seat")
+    @Description("The AI's player ID")
+    public int seat;
+
+    @Label("Count")
+    @Description("The count before the card is played")
+    public int count;
+
+    @Label("Iterations")
+    public int iterations;
+
+    @Label("Tree Size")
+    @Description("Nodes added to the search tree")
+    public int treeSize;
+
+    @Label("Chosen Card")
+    public String chosenCard;
+}
@@ -0,0 +1,35 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded by Java Flight Recorder for each decision made under an
+ * AITierPolicy, with the load readings that chose its tier. The event lasts
+ * as long as the decision.
+ */
+@Name("dev.wdrbork.cribbage.AITier")
+@Label("AI Tier")
+@Category({ "Cribbage", "AI" })
+@Description("The amount of work the AI put into a decision, and why")
+public class AITierEvent extends Event {
+    @Label("Decision")
+    @Description("DISCARD or CARD")
+    public String decision;
+
+    @Label("Tier")
+    public String tier;
+
+    @Label("Queue Depth")
+    @Description("AI tasks queued, running or in progress when the tier was chosen")
+    public int queueDepth;
+
+    @Label("Recent Latency")
+    @Description("Average time recently taken to choose a card")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+}
@@ -0,0 +1,33 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder each time SmartPlayer evaluates the keeps 
+ * of a dealt hand.
+ */
+@Name("dev.wdrbork.cribbage.DiscardEvaluation")
+@Label("Discard Evaluation")
+@Category({ "Cribbage", "AI" })
+public class DiscardEvaluationEvent extends Event {
+    @Label("Seat")
+    public int seat;
+
+    @Label("Dealer")
+    public boolean dealer;
+
+    @Label("Dealt Cards")
+    public String dealt;
+
+    @Label("Best Keep")
+    public String keep;
+
+    @Label("Value")
+    public double value;
+
+    @Label("Exact")
+    public boolean exact;
+}
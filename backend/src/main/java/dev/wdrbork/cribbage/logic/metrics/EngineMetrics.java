@@ -0,0 +1,89 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import dev.wdrbork.cribbage.logic.cache.LruCache;
+
+/**
+ * Timers and counters for the phases of the game engine. They are 
+ * registered with Micrometer's global registry, so the engine does not need 
+ * to know who reads them: the server publishes them along with its own 
+ * metrics, and when nothing is listening (e.g. in tests and simulations) 
+ * recording them costs next to nothing.
+ *
+ * Timers publish histograms, so percentiles can be computed when they are 
+ * scraped. Rates, such as MCTS iterations per second, come from the 
+ * counters.
+ */
+public final class EngineMetrics {
+    public static final Timer MCTS_SEARCH = timer("cribbage.engine.mcts.search",
+            "Time taken by one Monte Carlo tree search");
+    public static final Counter MCTS_ITERATIONS = counter("cribbage.engine.mcts.iterations",
+            "Monte Carlo tree search iterations, each ending in one rollout");
+    public static final Counter MCTS_NODES = counter("cribbage.engine.mcts.nodes",
+            "Nodes added to Monte Carlo search trees");
+    public static final Timer DISCARD = timer("cribbage.engine.discard",
+            "Time taken by SmartPlayer to choose which cards to keep");
+    public static final Timer HAND_SCORING = timer("cribbage.engine.scoring",
+            "Time taken to count a hand or crib", "type", "hand");
+    public static final Timer CRIB_SCORING = timer("cribbage.engine.scoring",
+            "Time taken to count a hand or crib", "type", "crib");
+
+    private EngineMetrics() {}
+
+    /**
+     * Returns the timer for AI decisions of the given kind made at the given 
+     * tier (see AITierPolicy). Its count is the number of such decisions.
+     *
+     * @param decision the kind of decision, e.g. "card"
+     * @param tier the name of the tier
+     * @return the timer
+     */
+    public static Timer aiDecision(String decision, String tier) {
+        return timer("cribbage.engine.ai.decision",
+                "Time taken by the AI to make a decision at a given tier",
+                "decision", decision, "tier", tier);
+    }
+
+    /**
+     * Publishes the size of the given cache and how many of its lookups hit 
+     * and missed, tagged with the given name.
+     *
+     * @param registry the registry to publish to
+     * @param name the name of the cache
+     * @param cache the cache
+     */
+    public static void monitor(MeterRegistry registry, String name, LruCache<?, ?> cache) {
+        FunctionCounter.builder("cribbage.cache.requests", cache, LruCache::hits)
+                .description("Lookups in an engine cache")
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cribbage.cache.requests", cache, LruCache::misses)
+                .description("Lookups in an engine cache")
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        Gauge.builder("cribbage.cache.size", cache, LruCache::size)
+                .description("Entries in an engine cache")
+                .tags("cache", name)
+                .register(registry);
+    }
+
+    private static Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    private static Counter counter(String name, String description) {
+        return Counter.builder(name)
+                .description(description)
+                .register(Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded by Java Flight Recorder when a new game is created. Copies of a 
+ * game, such as the ones searched by the AI, are not new games.
+ */
+@Name("dev.wdrbork.cribbage.GameCreated")
+@Label("Game Created")
+@Category({ "Cribbage", "Game" })
+@StackTrace(false)
+public class GameCreatedEvent extends Event {
+    @Label("Game ID")
+    public long gameId;
+
+    @Label("Players")
+    public int players;
+}
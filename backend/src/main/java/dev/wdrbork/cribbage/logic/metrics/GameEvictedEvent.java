@@ -0,0 +1,32 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded by Java Flight Recorder when the server discards a game, along 
+ * with how far the game got.
+ */
+@Name("dev.wdrbork.cribbage.GameEvicted")
+@Label("Game Evicted")
+@Category({ "Cribbage", "Game" })
+@Description("A game discarded by the server")
+@StackTrace(false)
+public class GameEvictedEvent extends Event {
+    @Label("Game ID")
+    public long gameId;
+
+    @Label("Version")
+    @Description("The number of changes made to the game")
+    public long version;
+
+    @Label("Scores")
+    public String scores;
+
+    @Label("Finished")
+    public boolean finished;
+}
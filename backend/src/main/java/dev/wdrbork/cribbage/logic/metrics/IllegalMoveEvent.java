@@ -0,0 +1,34 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder when CribbageManager refuses a move by 
+ * throwing, along with the state of the game that made the move illegal. 
+ * Moves refused through tryPlayCard() and trySendCardToCrib() are expected 
+ * and are not recorded.
+ */
+@Name("dev.wdrbork.cribbage.IllegalMove")
+@Label("Illegal Move")
+@Category({ "Cribbage", "Game" })
+@Description("A move refused by the game with an exception")
+public class IllegalMoveEvent extends Event {
+    @Label("Game ID")
+    public long gameId;
+
+    @Label("Move")
+    public String move;
+
+    @Label("Seat")
+    public int seat;
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Game State")
+    public String state;
+}
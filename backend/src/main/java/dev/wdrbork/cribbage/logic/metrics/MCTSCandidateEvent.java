@@ -0,0 +1,39 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded by Java Flight Recorder for each card considered at the end of a 
+ * Monte Carlo tree search, with the statistics that decided between them. 
+ * There is one of these per candidate per decision, so they are disabled 
+ * unless a recording turns them on.
+ */
+@Name("dev.wdrbork.cribbage.MCTSCandidate")
+@Label("MCTS Candidate")
+@Category({ "Cribbage", "AI" })
+@Description("A card considered by Monte Carlo tree search")
+@Enabled(false)
+@StackTrace(false)
+public class MCTSCandidateEvent extends Event {
+    @Label("Card")
+    @Description("The card, or null for a go")
+    public String card;
+
+    @Label("Points Earned")
+    public long pointsEarned;
+
+    @Label("Rollouts")
+    public int rollouts;
+
+    @Label("Parent Rollouts")
+    public int parentRollouts;
+
+    @Label("UCT Value")
+    public double uct;
+}
@@ -0,0 +1,26 @@
+package dev.wdrbork.cribbage.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder when a hand or crib is scored with every 
+ * starter at once to find its score distribution.
+ */
+@Name("dev.wdrbork.cribbage.ScoringBatch")
+@Label("Scoring Batch")
+@Category({ "Cribbage", "Scoring" })
+@Description("A hand scored with every possible starter")
+public class ScoringBatchEvent extends Event {
+    @Label("Crib")
+    public boolean crib;
+
+    @Label("Starters")
+    public int starters;
+
+    @Label("Mean Score")
+    public double mean;
+}
@@ -0,0 +1,19 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+/**
+ * Scores a four-card hand along with the starter card, with cards given as
+ * indices (see CardMask). Implemented by each scorer that ScoringSweep
+ * checks; CribbageScoreTable::score can be used directly.
+ */
+@FunctionalInterface
+public interface HandScorer {
+    /**
+     * Returns the total number of points in the given hand.
+     *
+     * @param hand the indices of the four cards in the hand
+     * @param starter the index of the starter card
+     * @param isCrib true if the hand is a crib, false otherwise
+     * @return the total number of points in the hand
+     */
+    public int score(int[] hand, int starter, boolean isCrib);
+}
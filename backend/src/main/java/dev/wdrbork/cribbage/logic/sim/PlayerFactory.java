@@ -0,0 +1,57 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.CribbageAI;
+import dev.wdrbork.cribbage.logic.game.ai.GreedyPlayer;
+import dev.wdrbork.cribbage.logic.game.ai.RandomPlayer;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+/**
+ * Creates the AI that controls a seat in a self-play game. Some AIs (e.g.
+ * RandomPlayer) remember the hand they were dealt when they are created, so
+ * a new AI is created for every round, right after the cards are dealt.
+ * Constructors such as SmartPlayer::new can be used directly.
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+    /**
+     * Creates an AI for the given player of the given game.
+     *
+     * @param game the game being played
+     * @param pid the ID of the player the AI controls
+     * @return the AI for this round
+     */
+    public CribbageAI create(CribbageManager game, int pid);
+
+    /**
+     * Returns a factory for the AI described by the given name, for use on 
+     * the command line. The name is either "random", "greedy", "smart", or 
+     * "smart:N" for a SmartPlayer that searches N iterations per card.
+     *
+     * @param spec the name of an AI
+     * @return a factory for that AI
+     * @throws IllegalArgumentException if the name is not recognized
+     */
+    public static PlayerFactory forName(String spec) {
+        String[] parts = spec.toLowerCase().split(":", 2);
+        switch (parts[0]) {
+            case "random":
+                return RandomPlayer::new;
+            case "greedy":
+                return GreedyPlayer::new;
+            case "smart":
+                if (parts.length == 1) {
+                    return SmartPlayer::new;
+                }
+
+                int iterations = Integer.parseInt(parts[1]);
+                return (game, pid) -> {
+                    SmartPlayer player = new SmartPlayer(game, pid);
+                    player.setSearchIterations(iterations);
+                    return player;
+                };
+            default:
+                throw new IllegalArgumentException("Unknown player type: " + spec);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.game.CribbageScoreTable;
+
+/**
+ * Scores every four-card hand with every possible starter card (each of the
+ * 2,598,960 five-card combinations with each of its five cards as the
+ * starter) using several scorers, and checks that they all agree. The first
+ * scorer is the reference: the histogram of scores comes from it, and any
+ * other scorer that gives a different score for a hand is counted as a
+ * mismatch. The sweep is split into blocks by the two lowest cards, and 
+ * each scorer scores a whole block at a time so it can be timed separately.
+ * The sweep can be limited to the blocks whose lowest card falls in a given
+ * range, for quick checks.
+ *
+ *     java -cp cribbage.jar dev.wdrbork.cribbage.logic.sim.ScoringSweep [hand|crib] [threads]
+ */
+public class ScoringSweep {
+    public static final int SCORED_CARDS = 5;
+    public static final int HAND_SIZE = 4;
+
+    private static final Card[] CARDS = new Card[CardMask.NUM_CARDS];
+
+    static {
+        for (int idx = 0; idx < CardMask.NUM_CARDS; idx++) {
+            CARDS[idx] = CardMask.cardAt(idx);
+        }
+    }
+
+    private final List<String> names = new ArrayList<>();
+    private final List<HandScorer> scorers = new ArrayList<>();
+    private boolean isCrib = false;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int fromLowestCard = 0;
+    private int toLowestCard = CardMask.NUM_CARDS;
+
+    /**
+     * Creates a sweep that compares CribbageScoring (the reference) with 
+     * CribbageScoreTable.
+     */
+    public ScoringSweep() {
+        addScorer("CribbageScoring", ScoringSweep::scoreWithCribbageScoring);
+        addScorer("CribbageScoreTable", CribbageScoreTable::score);
+    }
+
+    public static void main(String[] args) {
+        ScoringSweep sweep = new ScoringSweep();
+        if (args.length > 0) {
+            sweep.setCrib(args[0].equalsIgnoreCase("crib"));
+        }
+        if (args.length > 1) {
+            sweep.setThreads(Integer.parseInt(args[1]));
+        }
+
+        System.out.print(sweep.run());
+    }
+
+    /**
+     * Adds a scorer to check against the reference scorer.
+     *
+     * @param name the name the scorer is reported under
+     * @param scorer the scorer
+     */
+    public void addScorer(String name, HandScorer scorer) {
+        if (name == null || scorer == null) {
+            throw new NullPointerException("Scorer is null");
+        } else if (names.contains(name)) {
+            throw new IllegalArgumentException("Scorer " + name + " already added");
+        }
+
+        names.add(name);
+        scorers.add(scorer);
+    }
+
+    /**
+     * Sets whether hands are scored as cribs, which only changes how 
+     * flushes are counted. Defaults to false.
+     */
+    public void setCrib(boolean isCrib) {
+        this.isCrib = isCrib;
+    }
+
+    /** Sets the number of threads that blocks are scored on. */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Must use at least one thread");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Limits the sweep to hands whose lowest card (by CardMask index) is at 
+     * least from and less than to. Defaults to every hand.
+     *
+     * @param from the lowest card index to include
+     * @param to one past the highest card index to include
+     */
+    public void setLowestCardRange(int from, int to) {
+        if (from < 0 || to > CardMask.NUM_CARDS || from > to) {
+            throw new IllegalArgumentException("Invalid card range " + from + " to " + to);
+        }
+        this.fromLowestCard = from;
+        this.toLowestCard = to;
+    }
+
+    /**
+     * Scores every hand with every scorer.
+     *
+     * @return the score histogram, mismatches and timings
+     */
+    public ScoringSweepResult run() {
+        int numCards = CardMask.NUM_CARDS;
+        long start = System.nanoTime();
+        Tally total;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            total = pool.submit(
+                    () -> IntStream.range(fromLowestCard * numCards, toLowestCard * numCards)
+                            .parallel()
+                            .filter(block -> block / numCards < block % numCards)
+                            .mapToObj(block -> sweepBlock(block / numCards, block % numCards))
+                            .reduce(new Tally(scorers.size()), Tally::merge))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring hands", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scoring sweep failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new ScoringSweepResult(isCrib, names, total.histogram,
+                total.mismatches, total.firstMismatches, total.scorerNanos,
+                elapsed);
+    }
+
+    // Scores every hand whose two lowest cards are c0 and c1
+    private Tally sweepBlock(int c0, int c1) {
+        int remaining = CardMask.NUM_CARDS - c1 - 1;
+        int combos = remaining * (remaining - 1) * (remaining - 2) / 6;
+        int[] hands = new int[combos * SCORED_CARDS * HAND_SIZE];
+        int[] starters = new int[combos * SCORED_CARDS];
+
+        int[] cards = new int[SCORED_CARDS];
+        cards[0] = c0;
+        cards[1] = c1;
+        int entries = 0;
+        for (cards[2] = c1 + 1; cards[2] < CardMask.NUM_CARDS; cards[2]++)
+        for (cards[3] = cards[2] + 1; cards[3] < CardMask.NUM_CARDS; cards[3]++)
+        for (cards[4] = cards[3] + 1; cards[4] < CardMask.NUM_CARDS; cards[4]++) {
+            for (int s = 0; s < SCORED_CARDS; s++) {
+                int offset = entries * HAND_SIZE;
+                for (int c = 0; c < SCORED_CARDS; c++) {
+                    if (c != s) hands[offset++] = cards[c];
+                }
+                starters[entries++] = cards[s];
+            }
+        }
+
+        Tally tally = new Tally(scorers.size());
+        int[][] scores = new int[scorers.size()][entries];
+        int[] hand = new int[HAND_SIZE];
+        for (int k = 0; k < scorers.size(); k++) {
+            HandScorer scorer = scorers.get(k);
+            long scorerStart = System.nanoTime();
+            for (int i = 0; i < entries; i++) {
+                System.arraycopy(hands, i * HAND_SIZE, hand, 0, HAND_SIZE);
+                scores[k][i] = scorer.score(hand, starters[i], isCrib);
+            }
+            tally.scorerNanos[k] += System.nanoTime() - scorerStart;
+        }
+
+        for (int i = 0; i < entries; i++) {
+            int expected = scores[0][i];
+            if (expected < 0 || expected >= tally.histogram.length) {
+                throw new IllegalStateException("Reference scorer gave " + 
+                        expected + " points to " + describe(hands, starters, i));
+            }
+            tally.histogram[expected]++;
+            for (int k = 1; k < scorers.size(); k++) {
+                if (scores[k][i] != expected) {
+                    if (tally.mismatches[k]++ == 0) {
+                        tally.firstMismatches[k] = describe(hands, starters, i)
+                                + ": " + scores[k][i] + " instead of " + expected;
+                    }
+                }
+            }
+        }
+        return tally;
+    }
+
+    private static String describe(int[] hands, int[] starters, int entry) {
+        List<Card> hand = new ArrayList<>();
+        for (int c = 0; c < HAND_SIZE; c++) {
+            hand.add(CARDS[hands[entry * HAND_SIZE + c]]);
+        }
+        return hand + " with starter " + CARDS[starters[entry]];
+    }
+
+    /**
+     * Scores the given hand with CribbageScoring, through 
+     * CribbageHand.countCribbageHand().
+     */
+    public static int scoreWithCribbageScoring(int[] hand, int starter, boolean isCrib) {
+        CribbageHand cribbageHand = new CribbageHand();
+        for (int idx : hand) {
+            cribbageHand.addCard(CARDS[idx]);
+        }
+        return cribbageHand.countCribbageHand(CARDS[starter], isCrib)[0];
+    }
+
+    /* Counts accumulated over one or more blocks */
+    private static class Tally {
+        final long[] histogram = new long[ScoringSweepResult.MAX_SCORE + 1];
+        final long[] mismatches;
+        final String[] firstMismatches;
+        final long[] scorerNanos;
+
+        Tally(int numScorers) {
+            mismatches = new long[numScorers];
+            firstMismatches = new String[numScorers];
+            scorerNanos = new long[numScorers];
+        }
+
+        Tally merge(Tally other) {
+            Tally merged = new Tally(mismatches.length);
+            for (int score = 0; score < histogram.length; score++) {
+                merged.histogram[score] = histogram[score] + other.histogram[score];
+            }
+            for (int k = 0; k < mismatches.length; k++) {
+                merged.mismatches[k] = mismatches[k] + other.mismatches[k];
+                merged.firstMismatches[k] = firstMismatches[k] != null
+                        ? firstMismatches[k] : other.firstMismatches[k];
+                merged.scorerNanos[k] = scorerNanos[k] + other.scorerNanos[k];
+            }
+            return merged;
+        }
+    }
+}
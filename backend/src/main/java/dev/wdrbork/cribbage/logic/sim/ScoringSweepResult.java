@@ -0,0 +1,134 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The outcome of a ScoringSweep: how many hands earned each score according
+ * to the reference scorer, how often each other scorer disagreed with it, 
+ * and how long each scorer took.
+ */
+public class ScoringSweepResult {
+    /** The highest score a hand can earn. */
+    public static final int MAX_SCORE = 29;
+
+    private final boolean isCrib;
+    private final List<String> scorers;
+    private final long[] histogram;
+    private final long[] mismatches;
+    private final String[] firstMismatches;
+    private final long[] scorerNanos;
+    private final long elapsedNanos;
+
+    ScoringSweepResult(boolean isCrib, List<String> scorers, long[] histogram,
+            long[] mismatches, String[] firstMismatches, long[] scorerNanos,
+            long elapsedNanos) {
+        this.isCrib = isCrib;
+        this.scorers = List.copyOf(scorers);
+        this.histogram = histogram.clone();
+        this.mismatches = mismatches.clone();
+        this.firstMismatches = firstMismatches.clone();
+        this.scorerNanos = scorerNanos.clone();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isCrib() { return isCrib; }
+
+    public List<String> scorers() { return scorers; }
+
+    public long elapsedNanos() { return elapsedNanos; }
+
+    /** Returns the number of hands that earned the given score. */
+    public long count(int score) {
+        return score < 0 || score >= histogram.length ? 0 : histogram[score];
+    }
+
+    /** Returns the number of hands scored (by each scorer). */
+    public long hands() {
+        long hands = 0;
+        for (long count : histogram) hands += count;
+        return hands;
+    }
+
+    /** Returns the highest score earned by any hand. */
+    public int maxScore() {
+        for (int score = histogram.length - 1; score > 0; score--) {
+            if (histogram[score] > 0) return score;
+        }
+        return 0;
+    }
+
+    public double averageScore() {
+        long hands = hands();
+        if (hands == 0) return 0;
+
+        long points = 0;
+        for (int score = 0; score < histogram.length; score++) {
+            points += score * histogram[score];
+        }
+        return (double) points / hands;
+    }
+
+    /**
+     * Returns the number of hands for which the given scorer disagreed with
+     * the reference scorer.
+     */
+    public long mismatches(String scorer) {
+        return mismatches[indexOf(scorer)];
+    }
+
+    /**
+     * Returns a description of a hand the given scorer got wrong, or null if
+     * it agreed with the reference scorer on every hand.
+     */
+    public String firstMismatch(String scorer) {
+        return firstMismatches[indexOf(scorer)];
+    }
+
+    /** Returns the number of hands scored per second of wall time. */
+    public double handsPerSecond() {
+        return elapsedNanos == 0 ? 0 : hands() * scorers.size() / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Returns the number of hands the given scorer scores per second on a 
+     * single thread, based on the total time it spent across all threads.
+     */
+    public double handsPerSecond(String scorer) {
+        long nanos = scorerNanos[indexOf(scorer)];
+        return nanos == 0 ? 0 : hands() / (nanos / 1e9);
+    }
+
+    private int indexOf(String scorer) {
+        int idx = scorers.indexOf(scorer);
+        if (idx == -1) {
+            throw new IllegalArgumentException("Unknown scorer: " + scorer);
+        }
+        return idx;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT,
+                "%d %s scored by %d scorers in %.2f s, %.0f hands/s%n",
+                hands(), isCrib ? "cribs" : "hands", scorers.size(),
+                elapsedNanos / 1e9, handsPerSecond()));
+        for (int k = 0; k < scorers.size(); k++) {
+            report.append(String.format(Locale.ROOT,
+                    "%-20s %12.0f hands/s per thread, %d mismatches%n",
+                    scorers.get(k), handsPerSecond(scorers.get(k)), mismatches[k]));
+            if (firstMismatches[k] != null) {
+                report.append("    first: ").append(firstMismatches[k])
+                        .append(String.format("%n"));
+            }
+        }
+        report.append(String.format(Locale.ROOT, "Average score %.4f, max %d%n",
+                averageScore(), maxScore()));
+        for (int score = 0; score < histogram.length; score++) {
+            report.append(String.format(Locale.ROOT, "%2d %10d%n", score,
+                    histogram[score]));
+        }
+        return report.toString();
+    }
+}
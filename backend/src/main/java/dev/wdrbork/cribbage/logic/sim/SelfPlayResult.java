@@ -0,0 +1,91 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import java.util.Locale;
+
+/**
+ * Aggregate statistics from a batch of self-play games between two AIs.
+ * Margins are from the point of view of player 0, so a positive average
+ * margin means player 0 won by that many points on average.
+ */
+public class SelfPlayResult {
+    public static final int DEAL = 0;
+    public static final int PLAY = 1;
+    public static final int SHOW = 2;
+    public static final int NUM_PHASES = 3;
+
+    private static final String[] PHASE_NAMES = { "deal", "play", "show" };
+
+    private final int games;
+    private final int[] wins;
+    private final long totalMargin;
+    private final long rounds;
+    private final long[] phaseNanos;
+    private final long elapsedNanos;
+
+    SelfPlayResult(int games, int[] wins, long totalMargin, long rounds,
+            long[] phaseNanos, long elapsedNanos) {
+        this.games = games;
+        this.wins = wins.clone();
+        this.totalMargin = totalMargin;
+        this.rounds = rounds;
+        this.phaseNanos = phaseNanos.clone();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int games() { return games; }
+
+    public int wins(int pid) { return wins[pid]; }
+
+    public long rounds() { return rounds; }
+
+    public long elapsedNanos() { return elapsedNanos; }
+
+    /** Returns the fraction of games won by the given player. */
+    public double winRate(int pid) {
+        return games == 0 ? 0 : (double) wins[pid] / games;
+    }
+
+    /** Returns player 0's average final score minus player 1's. */
+    public double averageMargin() {
+        return games == 0 ? 0 : (double) totalMargin / games;
+    }
+
+    /** Returns the number of games completed per second of wall time. */
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Returns the total time spent in the given phase (DEAL, PLAY or SHOW)
+     * across all games and threads, in nanoseconds.
+     */
+    public long phaseNanos(int phase) {
+        return phaseNanos[phase];
+    }
+
+    /** Returns the average time spent in the given phase per round. */
+    public double averagePhaseMillis(int phase) {
+        return rounds == 0 ? 0 : phaseNanos[phase] / 1e6 / rounds;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT,
+                "%d games (%d rounds) in %.2f s, %.1f games/s%n", games,
+                rounds, elapsedNanos / 1e9, gamesPerSecond()));
+        for (int pid = 0; pid < wins.length; pid++) {
+            report.append(String.format(Locale.ROOT,
+                    "Player %d: %d wins (%.1f%%)%n", pid, wins[pid],
+                    winRate(pid) * 100));
+        }
+        report.append(String.format(Locale.ROOT,
+                "Average margin (player 0): %+.2f%n", averageMargin()));
+        for (int phase = 0; phase < NUM_PHASES; phase++) {
+            report.append(String.format(Locale.ROOT,
+                    "Average %s time per round: %.3f ms%n",
+                    PHASE_NAMES[phase], averagePhaseMillis(phase)));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,233 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.CribbageAI;
+
+/**
+ * Plays complete two-player games between two AIs without any user input,
+ * running games in parallel across the available cores. The first dealer
+ * alternates between games so neither seat gets the crib first more often.
+ * Does not depend on Spring, so it can be run from tests or the command line:
+ *
+ *     java -cp cribbage.jar dev.wdrbork.cribbage.logic.sim.SelfPlayRunner [games] [player 0] [player 1] [threads]
+ *
+ * where each player is named as in PlayerFactory.forName().
+ */
+public class SelfPlayRunner {
+    private static final int NUM_PLAYERS = 2;
+    private static final int DEFAULT_GAMES = 1000;
+
+    private final PlayerFactory[] players;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Creates a runner for games between the given AIs.
+     *
+     * @param first creates the AI for player 0
+     * @param second creates the AI for player 1
+     */
+    public SelfPlayRunner(PlayerFactory first, PlayerFactory second) {
+        if (first == null || second == null) {
+            throw new NullPointerException("Player factory is null");
+        }
+
+        this.players = new PlayerFactory[] { first, second };
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        PlayerFactory first = PlayerFactory.forName(args.length > 1 ? args[1] : "smart");
+        PlayerFactory second = PlayerFactory.forName(args.length > 2 ? args[2] : "random");
+        SelfPlayRunner runner = new SelfPlayRunner(first, second);
+        if (args.length > 3) {
+            runner.setThreads(Integer.parseInt(args[3]));
+        }
+
+        System.out.print(runner.run(games));
+    }
+
+    /**
+     * Sets the number of games played at the same time. Defaults to the
+     * number of available cores.
+     *
+     * @param threads the number of threads to play games on
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Must use at least one thread");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Plays the given number of games and returns the combined results.
+     *
+     * @param games the number of games to play
+     * @return statistics over all of the games
+     * @throws IllegalStateException if a game fails
+     */
+    public SelfPlayResult run(int games) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative");
+        }
+
+        long start = System.nanoTime();
+        GameRecord[] records = playInParallel(threads, 
+                () -> IntStream.range(0, games).parallel()
+                        .mapToObj(this::playGame)
+                        .toArray(GameRecord[]::new));
+        long elapsed = System.nanoTime() - start;
+
+        int[] wins = new int[NUM_PLAYERS];
+        long totalMargin = 0;
+        long rounds = 0;
+        long[] phaseNanos = new long[SelfPlayResult.NUM_PHASES];
+        for (GameRecord record : records) {
+            wins[record.winner]++;
+            totalMargin += record.scores[0] - record.scores[1];
+            rounds += record.rounds;
+            for (int phase = 0; phase < phaseNanos.length; phase++) {
+                phaseNanos[phase] += record.phaseNanos[phase];
+            }
+        }
+
+        return new SelfPlayResult(games, wins, totalMargin, rounds, phaseNanos,
+                elapsed);
+    }
+
+    /**
+     * Plays a single game to completion.
+     *
+     * @param gameIdx the number of this game; player 0 deals first in even
+     *                games and player 1 in odd games
+     * @return the outcome of the game
+     */
+    GameRecord playGame(int gameIdx) {
+        return playGame(players[0], players[1], gameIdx % NUM_PLAYERS, null);
+    }
+
+    /**
+     * Plays a single game to completion between the given AIs.
+     *
+     * @param first creates the AI for player 0
+     * @param second creates the AI for player 1
+     * @param dealer the player who deals first
+     * @param random the source of randomness for the cards, or null to use
+     *               an unseeded one
+     * @return the outcome of the game
+     */
+    static GameRecord playGame(PlayerFactory first, PlayerFactory second,
+            int dealer, Random random) {
+        PlayerFactory[] players = { first, second };
+        CribbageManager game = new CribbageManager(NUM_PLAYERS);
+        game.setBackgroundPlayingHands(false);
+        game.setRandom(random);
+        game.setDealer(dealer);
+
+        GameRecord record = new GameRecord();
+        while (!game.gameOver()) {
+            long dealStart = System.nanoTime();
+            game.dealHands();
+            CribbageAI[] ai = new CribbageAI[NUM_PLAYERS];
+            for (int pid = 0; pid < NUM_PLAYERS; pid++) {
+                ai[pid] = players[pid].create(game, pid);
+                CribbageHand playingHand = ai[pid].choosePlayingHand();
+                for (Card card : game.getHand(pid).getCards()) {
+                    if (!playingHand.contains(card)) {
+                        game.sendCardToCrib(pid, card);
+                    }
+                }
+            }
+
+            long playStart = System.nanoTime();
+            game.pickStarterCard();
+            playRound(game, ai);
+
+            long showStart = System.nanoTime();
+            countHands(game);
+            game.clearRoundState();
+            long showEnd = System.nanoTime();
+
+            record.phaseNanos[SelfPlayResult.DEAL] += playStart - dealStart;
+            record.phaseNanos[SelfPlayResult.PLAY] += showStart - playStart;
+            record.phaseNanos[SelfPlayResult.SHOW] += showEnd - showStart;
+            record.rounds++;
+        }
+
+        record.scores = game.gameScores();
+        record.winner = game.isWinner(0) ? 0 : 1;
+        return record;
+    }
+
+    /**
+     * Runs the given task on a pool of the given number of threads, so that 
+     * any parallel streams it uses are limited to that many threads.
+     *
+     * @param threads the number of threads to use
+     * @param task the task to run
+     * @return the result of the task
+     * @throws IllegalStateException if the task fails
+     */
+    static <T> T playInParallel(int threads, Callable<T> task) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while playing games", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Plays out the second stage of a round. Points for go's are awarded by
+    // playCard() itself, so the count only needs to be reset once nobody
+    // can play
+    private static void playRound(CribbageManager game, CribbageAI[] ai) {
+        while (!game.roundOver()) {
+            int next = game.nextToPlayCard();
+            if (!game.movePossible()) {
+                game.resetCount();
+                continue;
+            } else if (!game.hasPlayableCard(next)) {
+                game.setNextPlayer((next + 1) % NUM_PLAYERS);
+                continue;
+            }
+
+            game.playCard(next, ai[next].chooseCard());
+            if (!game.roundOver() && !game.movePossible()) {
+                game.resetCount();
+            }
+        }
+    }
+
+    // Counts the hands in order, starting with the player after the dealer
+    // and ending with the crib, stopping as soon as somebody wins
+    private static void countHands(CribbageManager game) {
+        for (int i = 1; i <= NUM_PLAYERS && !game.gameOver(); i++) {
+            game.countHand((game.dealer() + i) % NUM_PLAYERS);
+        }
+
+        if (!game.gameOver()) {
+            game.countCrib();
+        }
+    }
+
+    /* The outcome of a single game */
+    static class GameRecord {
+        int winner;
+        int[] scores;
+        int rounds;
+        final long[] phaseNanos = new long[SelfPlayResult.NUM_PHASES];
+    }
+}
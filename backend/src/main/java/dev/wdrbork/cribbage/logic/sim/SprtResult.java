@@ -0,0 +1,84 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import java.util.Locale;
+
+/**
+ * The outcome of an SprtTournament. Games are played in pairs with the same
+ * cards and swapped seats, so each pair is summarized by how many of its two
+ * games the candidate won.
+ */
+public class SprtResult {
+    public enum Decision {
+        /** The candidate is at least elo1 stronger than the baseline. */
+        ACCEPT_H1,
+        /** The candidate is no more than elo0 stronger than the baseline. */
+        ACCEPT_H0,
+        /** The maximum number of pairs was played without a decision. */
+        INCONCLUSIVE
+    }
+
+    private final Decision decision;
+    private final long[] pairCounts;
+    private final double llr;
+    private final double lowerBound;
+    private final double upperBound;
+    private final long elapsedNanos;
+
+    SprtResult(Decision decision, long[] pairCounts, double llr,
+            double lowerBound, double upperBound, long elapsedNanos) {
+        this.decision = decision;
+        this.pairCounts = pairCounts.clone();
+        this.llr = llr;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Decision decision() { return decision; }
+
+    public double llr() { return llr; }
+
+    public double lowerBound() { return lowerBound; }
+
+    public double upperBound() { return upperBound; }
+
+    public long elapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Returns the number of pairs in which the candidate won the given number
+     * of games (0, 1 or 2).
+     */
+    public long pairs(int candidateWins) {
+        return pairCounts[candidateWins];
+    }
+
+    public long pairs() {
+        return pairCounts[0] + pairCounts[1] + pairCounts[2];
+    }
+
+    public long games() {
+        return 2 * pairs();
+    }
+
+    /** Returns the fraction of games won by the candidate. */
+    public double score() {
+        long pairs = pairs();
+        return pairs == 0 ? 0.5 : (pairCounts[1] + 2.0 * pairCounts[2]) / (2.0 * pairs);
+    }
+
+    /** Returns the Elo difference implied by the candidate's score. */
+    public double elo() {
+        return SprtTournament.elo(score());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s after %d games in %.1f s%n"
+                + "Pairs won 0/1/2: %d/%d/%d%n"
+                + "Score %.4f (%+.1f Elo), LLR %.3f [%.3f, %.3f]%n",
+                decision, games(), elapsedNanos / 1e9, pairCounts[0],
+                pairCounts[1], pairCounts[2], score(), elo(), llr, lowerBound,
+                upperBound);
+    }
+}
@@ -0,0 +1,227 @@
+package dev.wdrbork.cribbage.logic.sim;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Plays a candidate AI against a baseline AI until a sequential probability
+ * ratio test decides whether the candidate is stronger.
+ *
+ * Games are played in pairs. Both games of a pair use the same seed for
+ * shuffling and the same first dealer, but the AIs swap seats, so each AI
+ * plays the cards the other was dealt. This cancels out most of the luck of
+ * the deal. Pairs are played in parallel batches, and after each batch the
+ * log-likelihood ratio (LLR) of H1 (the candidate is elo1 stronger) against
+ * H0 (the candidate is elo0 stronger) is compared with the bounds given by
+ * alpha and beta. The LLR uses the normal approximation of the generalized
+ * SPRT on the score of each pair (0, 1/2 or 1).
+ *
+ *     java -cp cribbage.jar dev.wdrbork.cribbage.logic.sim.SprtTournament <candidate> <baseline> [elo0] [elo1] [max pairs]
+ *
+ * where each AI is named as in PlayerFactory.forName().
+ */
+public class SprtTournament {
+    private static final double DEFAULT_ELO0 = 0;
+    private static final double DEFAULT_ELO1 = 20;
+    private static final double DEFAULT_ERROR = 0.05;
+    private static final int DEFAULT_MAX_PAIRS = 20000;
+    private static final int PAIRS_PER_THREAD = 4;
+    private static final int CANDIDATE_SEAT = 0;
+
+    // The normal approximation is poor for very small samples, so no
+    // decision is made before this many pairs have been played
+    private static final int MIN_PAIRS = 20;
+
+    private final PlayerFactory candidate;
+    private final PlayerFactory baseline;
+    private double elo0 = DEFAULT_ELO0;
+    private double elo1 = DEFAULT_ELO1;
+    private double alpha = DEFAULT_ERROR;
+    private double beta = DEFAULT_ERROR;
+    private int maxPairs = DEFAULT_MAX_PAIRS;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+
+    /**
+     * Creates a tournament between the given AIs.
+     *
+     * @param candidate creates the AI being tested
+     * @param baseline creates the AI it is compared against
+     */
+    public SprtTournament(PlayerFactory candidate, PlayerFactory baseline) {
+        if (candidate == null || baseline == null) {
+            throw new NullPointerException("Player factory is null");
+        }
+
+        this.candidate = candidate;
+        this.baseline = baseline;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: SprtTournament <candidate> <baseline> [elo0] [elo1] [max pairs]");
+            return;
+        }
+
+        SprtTournament tournament = new SprtTournament(
+                PlayerFactory.forName(args[0]), PlayerFactory.forName(args[1]));
+        if (args.length > 3) {
+            tournament.setHypotheses(Double.parseDouble(args[2]),
+                    Double.parseDouble(args[3]));
+        }
+        if (args.length > 4) {
+            tournament.setMaxPairs(Integer.parseInt(args[4]));
+        }
+
+        System.out.print(tournament.run());
+    }
+
+    /**
+     * Sets the Elo differences of the two hypotheses. Defaults to 0 and 20.
+     *
+     * @param elo0 the Elo difference under H0
+     * @param elo1 the Elo difference under H1, which must be greater
+     */
+    public void setHypotheses(double elo0, double elo1) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+    }
+
+    /**
+     * Sets the probabilities of accepting H1 when H0 is true (alpha) and of
+     * accepting H0 when H1 is true (beta). Both default to 0.05.
+     */
+    public void setErrorRates(double alpha, double beta) {
+        if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Error rates must be between 0 and 1");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /** Sets the number of pairs after which the test gives up. */
+    public void setMaxPairs(int maxPairs) {
+        if (maxPairs < 1) {
+            throw new IllegalArgumentException("Must play at least one pair");
+        }
+        this.maxPairs = maxPairs;
+    }
+
+    /** Sets the number of games played at the same time. */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Must use at least one thread");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the seed that the deals are derived from. Pair i shuffles with
+     * seed + i, so runs with the same seed see the same cards.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Plays pairs of games until H0 or H1 is accepted or the maximum number
+     * of pairs has been played.
+     *
+     * @return the decision and the statistics it was based on
+     */
+    public SprtResult run() {
+        double lowerBound = Math.log(beta / (1 - alpha));
+        double upperBound = Math.log((1 - beta) / alpha);
+        long[] pairCounts = new long[3];
+        double llr = 0;
+        int batchSize = threads * PAIRS_PER_THREAD;
+        long start = System.nanoTime();
+
+        int played = 0;
+        SprtResult.Decision decision = SprtResult.Decision.INCONCLUSIVE;
+        while (played < maxPairs) {
+            int first = played;
+            int last = Math.min(maxPairs, played + batchSize);
+            int[] results = SelfPlayRunner.playInParallel(threads,
+                    () -> IntStream.range(first, last).parallel()
+                            .map(this::playPair)
+                            .toArray());
+            for (int wins : results) {
+                pairCounts[wins]++;
+            }
+            played = last;
+
+            llr = llr(pairCounts, elo0, elo1);
+            if (played < MIN_PAIRS && played < maxPairs) {
+                continue;
+            } else if (llr >= upperBound) {
+                decision = SprtResult.Decision.ACCEPT_H1;
+                break;
+            } else if (llr <= lowerBound) {
+                decision = SprtResult.Decision.ACCEPT_H0;
+                break;
+            }
+        }
+
+        return new SprtResult(decision, pairCounts, llr, lowerBound, upperBound,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Plays both games of the given pair and returns how many the candidate
+     * won.
+     */
+    int playPair(int pair) {
+        int dealer = pair % 2;
+        SelfPlayRunner.GameRecord asFirst = SelfPlayRunner.playGame(
+                candidate, baseline, dealer, new Random(seed + pair));
+        SelfPlayRunner.GameRecord asSecond = SelfPlayRunner.playGame(
+                baseline, candidate, dealer, new Random(seed + pair));
+
+        int wins = 0;
+        if (asFirst.winner == CANDIDATE_SEAT) wins++;
+        if (asSecond.winner != CANDIDATE_SEAT) wins++;
+        return wins;
+    }
+
+    /**
+     * Returns the log-likelihood ratio of H1 against H0 given the number of
+     * pairs in which the candidate won 0, 1 and 2 games, using the normal
+     * approximation to the pair scores. Returns 0 until the scores vary.
+     *
+     * @param pairCounts the number of pairs with each number of wins
+     * @param elo0 the Elo difference under H0
+     * @param elo1 the Elo difference under H1
+     * @return the log-likelihood ratio
+     */
+    public static double llr(long[] pairCounts, double elo0, double elo1) {
+        double n = pairCounts[0] + pairCounts[1] + pairCounts[2];
+        if (n == 0) {
+            return 0;
+        }
+
+        double mean = (0.5 * pairCounts[1] + pairCounts[2]) / n;
+        double variance = (0.25 * pairCounts[1] + pairCounts[2]) / n - mean * mean;
+        if (variance <= 0) {
+            return 0;
+        }
+
+        double s0 = score(elo0);
+        double s1 = score(elo1);
+        return n * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    /** Returns the expected score of a player who is the given Elo stronger. */
+    public static double score(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /** Returns the Elo difference that corresponds to the given score. */
+    public static double elo(double score) {
+        double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+}
@@ -0,0 +1,337 @@
+package dev.wdrbork.cribbage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.StandardDeck;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class TestGameController {
+    private static final String API = "/api/v1/game";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @BeforeEach
+    public void resetGame() throws Exception {
+        mvc.perform(post(API + "/resetGame")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void testSnapshotNotModified() throws Exception {
+        String etag = mvc.perform(get(API + "/getSnapshot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numPlayers").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mvc.perform(get(API + "/getSnapshot").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Any change to the game changes the ETag
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 0}"))
+                .andExpect(status().isOk());
+        String changed = mvc.perform(get(API + "/getSnapshot")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dealer").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(changed, etag);
+    }
+
+    @Test
+    public void testChangesSinceSnapshot() throws Exception {
+        String etag = mvc.perform(get(API + "/getSnapshot"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 1}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get(API + "/getChanges").param("since", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].type").value("DEALER_SET"))
+                .andExpect(jsonPath("$.events[0].pid").value(1))
+                .andExpect(jsonPath("$.events[0].cardId").doesNotExist())
+                .andExpect(jsonPath("$.nextPlayer").value(0))
+                .andExpect(jsonPath("$.snapshot").doesNotExist());
+
+        // A token from another game gets a full snapshot
+        mvc.perform(get(API + "/getChanges").param("since", "12345.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshot.dealer").value(1))
+                .andExpect(jsonPath("$.events").doesNotExist());
+        mvc.perform(get(API + "/getChanges").param("since", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testEventStream() throws Exception {
+        MvcResult stream = mvc.perform(get(API + "/streamEvents"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 1}"))
+                .andExpect(status().isOk());
+
+        // Events are sent in the background, so wait for the whole event
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = "";
+        while (!content.endsWith("\n\n") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains("event:DEALER_SET"), content);
+        assertTrue(content.contains("\"pid\":1"), content);
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        mvc.perform(post(API + "/batch").contentType("application/json").content(
+                "[{\"command\": \"setDealer\", \"args\": {\"pid\": 1}}," +
+                " {\"command\": \"dealHands\"}," +
+                " {\"command\": \"getDealer\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].body.length()").value(2))
+                .andExpect(jsonPath("$[2].command").value("getDealer"))
+                .andExpect(jsonPath("$[2].body").value("1"));
+
+        // The batch stops at the first failure, keeping earlier commands
+        mvc.perform(post(API + "/batch").contentType("application/json").content(
+                "[{\"command\": \"getCount\"}," +
+                " {\"command\": \"countCrib\"}," +
+                " {\"command\": \"getScores\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].status").value(400));
+        mvc.perform(post(API + "/batch").contentType("application/json").content(
+                "[{\"command\": \"setDealer\", \"args\": {\"pid\": 0}}," +
+                " {\"command\": \"playCard\", \"args\": {\"pid\": 0, \"suitId\": 1, \"rankId\": 1}}," +
+                " {\"command\": \"noSuchCommand\"}]"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].command").value("playCard"))
+                .andExpect(jsonPath("$[1].body.result").value("NOT_YOUR_TURN"));
+        mvc.perform(post(API + "/getDealer"))
+                .andExpect(content().string("0"));
+        mvc.perform(post(API + "/batch").contentType("application/json").content(
+                "[{\"command\": \"noSuchCommand\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].body").value("Unknown command: noSuchCommand"));
+    }
+
+    @Test
+    public void testAutoPlay() throws Exception {
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 0}"));
+        mvc.perform(post(API + "/dealHands"));
+        mvc.perform(post(API + "/selectAIHands"));
+        for (int i = 0; i < 2; i++) {
+            JsonNode card = hand().get(0);
+            mvc.perform(post(API + "/moveCardToCrib").contentType("application/json")
+                    .content(cardBody(card))).andExpect(status().isOk());
+        }
+        mvc.perform(post(API + "/pickStarterCard"));
+
+        // The AI leads, so it plays first
+        JsonNode result = mapper.readTree(mvc.perform(post(API + "/playAITurns"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(result.get("plays").size(), 1);
+        assertEquals(result.get("plays").get(0).get("pid").asInt(), 1);
+        assertEquals(result.get("nextPlayer").asInt(), 0);
+
+        // Each of the user's cards is followed by everything up to their next turn
+        int played = 1;
+        Set<Integer> userCards = new HashSet<>();
+        while (!result.get("roundOver").asBoolean()) {
+            JsonNode next = null;
+            for (JsonNode card : hand()) {
+                if (userCards.contains(card.get("cardId").asInt())) continue;
+
+                next = mapper.readTree(mvc.perform(post(API + "/playCard")
+                        .param("autoPlay", "true").contentType("application/json")
+                        .content(cardBody(card)))
+                        .andReturn().getResponse().getContentAsString());
+                if (next.has("plays")) {
+                    userCards.add(card.get("cardId").asInt());
+                    break;
+                }
+                assertEquals(next.get("result").asText(), "EXCEEDS_31");
+            }
+            assertNotNull(next);
+            result = next;
+
+            JsonNode plays = result.get("plays");
+            assertEquals(plays.get(0).get("pid").asInt(), 0);
+            int count = plays.get(0).get("count").asInt();
+            for (int i = 1; i < plays.size(); i++) {
+                JsonNode step = plays.get(i);
+                if (step.get("type").asText().equals("COUNT_RESET")) {
+                    assertEquals(step.get("count").asInt(), 0);
+                    assertFalse(step.has("playedCard"));
+                } else {
+                    assertEquals(step.get("pid").asInt(), 1);
+                    assertEquals(step.get("count").asInt(),
+                            count + step.get("playedCard").get("value").asInt());
+                }
+                count = step.get("count").asInt();
+            }
+            for (JsonNode step : plays) {
+                if (step.has("playedCard")) played++;
+            }
+        }
+        assertEquals(userCards.size(), 4);
+        assertEquals(played, 8);
+
+        mvc.perform(post(API + "/playCard").param("autoPlay", "true")
+                .contentType("application/json")
+                .content("{\"pid\": 1, \"suitId\": 1, \"rankId\": 1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Only the user's plays can be followed by AI plays"));
+    }
+
+    @Test
+    public void testHandDistributionAfterDiscarding() throws Exception {
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 0}"));
+        mvc.perform(post(API + "/dealHands"));
+        for (int i = 0; i < 2; i++) {
+            JsonNode card = hand().get(0);
+            mvc.perform(post(API + "/moveCardToCrib").contentType("application/json")
+                    .content(cardBody(card))).andExpect(status().isOk());
+        }
+
+        // The user's own discards cannot be the starter card
+        mvc.perform(post(API + "/getHandDistribution")
+                .contentType("application/json").content("{\"pid\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cards.length()").value(4))
+                .andExpect(jsonPath("$.starters").value(46));
+    }
+
+    private JsonNode hand() throws Exception {
+        return mapper.readTree(mvc.perform(post(API + "/getPlayerHand")
+                .contentType("application/json").content("{\"pid\": 0}"))
+                .andReturn().getResponse().getContentAsString()).get("cards");
+    }
+
+    private static String cardBody(JsonNode card) {
+        return "{\"pid\": 0, \"suitId\": " + card.get("suitValue").asInt() +
+                ", \"rankId\": " + card.get("rankValue").asInt() + "}";
+    }
+
+    @Test
+    public void testCardSerializers() throws Exception {
+        // Hand-written serializers produce what reflection used to
+        ObjectMapper reflective = new ObjectMapper();
+        StandardDeck deck = new StandardDeck();
+        deck.shuffle(new Random(1));
+        CribbageHand hand = new CribbageHand();
+        for (int i = 0; i < 4; i++) {
+            hand.addCard(deck.takeTopCard());
+        }
+        assertEquals(mapper.readTree(mapper.writeValueAsString(hand)),
+                reflective.readTree(reflective.writeValueAsString(hand)));
+        assertEquals(mapper.readTree(mapper.writeValueAsString(hand.getCard(0))),
+                reflective.readTree(reflective.writeValueAsString(hand.getCard(0))));
+        assertEquals(mapper.readTree(mapper.writeValueAsString(new CribbageHand())),
+                reflective.readTree(reflective.writeValueAsString(new CribbageHand())));
+    }
+
+    @Test
+    public void testCborResponses() throws Exception {
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 0}"));
+        mvc.perform(post(API + "/dealHands"));
+        String body = "{\"pid\": 0}";
+        byte[] json = mvc.perform(post(API + "/getPlayerHand")
+                .contentType("application/json").content(body))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mvc.perform(post(API + "/getPlayerHand")
+                .contentType("application/json").content(body)
+                .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // A hand is just the IDs of its cards
+        JsonNode cards = mapper.readTree(json).get("cards");
+        JsonNode ids = new CBORMapper().readTree(cbor);
+        assertEquals(ids.size(), 6);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i).asInt(), cards.get(i).get("cardId").asInt());
+        }
+        assertTrue(cbor.length < json.length / 10);
+    }
+
+    @Test
+    public void testPrometheusMetrics() throws Exception {
+        mvc.perform(post(API + "/setDealer")
+                .contentType("application/json").content("{\"pid\": 0}"));
+        mvc.perform(post(API + "/dealHands"));
+        mvc.perform(post(API + "/selectAIHands"));
+        mvc.perform(post(API + "/getDiscardAdvice")
+                .contentType("application/json").content("{\"pid\": 0}"));
+
+        String metrics = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(metrics.contains("cribbage_games_active 1.0"));
+        assertTrue(metrics.contains("cribbage_events_subscribers"));
+        assertTrue(metrics.contains("cribbage_engine_mcts_search_seconds_bucket"));
+        assertTrue(metrics.contains("cribbage_engine_mcts_iterations_total"));
+        assertTrue(metrics.contains("cribbage_engine_scoring_seconds_count{type=\"crib\""));
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket"));
+        assertTrue(metrics.contains("uri=\"/api/v1/game/selectAIHands\""));
+        assertTrue(count(metrics, "cribbage_engine_discard_seconds_count") >= 1);
+        assertTrue(count(metrics, "cribbage_engine_ai_decision_seconds_count{decision=\"discard\"") >= 1);
+        assertTrue(metrics.contains("cribbage_ai_queue_depth"));
+        assertTrue(metrics.contains("cribbage_ai_latency_seconds"));
+        assertTrue(count(metrics,
+                "cribbage_cache_requests_total{cache=\"discardCoach\",result=\"miss\"") >= 1);
+    }
+
+    // Returns the value of the first series in Prometheus's text format that 
+    // starts with the given name and labels
+    private static double count(String metrics, String series) {
+        Matcher matcher = Pattern.compile("^" + Pattern.quote(series) + "\\S* (\\S+)$",
+                Pattern.MULTILINE).matcher(metrics);
+        assertTrue(matcher.find(), series);
+        return Double.parseDouble(matcher.group(1));
+    }
+}
@@ -0,0 +1,175 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.AITier;
+import dev.wdrbork.cribbage.logic.game.ai.AITierPolicy;
+import dev.wdrbork.cribbage.logic.game.ai.GreedyPlayer;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+public class TestAITiers {
+    private static final int USER_ID = 0;
+    private static final int AI_ID = 1;
+
+    private CribbageManagerTest man;
+
+    private class CribbageManagerTest extends CribbageManager {
+        public CribbageManagerTest() {
+            super(2);
+        }
+
+        public void setHand(int pid, CribbageHand hand) {
+            hands.set(pid, hand);
+        }
+    }
+
+    @Test
+    public void testQueueDepthPicksTier() {
+        AtomicInteger backlog = new AtomicInteger();
+        AITierPolicy policy = new AITierPolicy(backlog::get);
+        policy.setReducedQueueDepth(2);
+        policy.setHeuristicQueueDepth(5);
+
+        assertEquals(policy.select(), AITier.FULL);
+        backlog.set(2);
+        assertEquals(policy.select(), AITier.REDUCED);
+        backlog.set(5);
+        assertEquals(policy.select(), AITier.HEURISTIC);
+
+        // Card searches in progress count towards the queue depth
+        backlog.set(4);
+        AITier nested = policy.decide(AITierPolicy.Decision.CARD,
+                tier -> policy.select());
+        assertEquals(nested, AITier.HEURISTIC);
+        assertEquals(policy.queueDepth(), 4);
+
+        policy.setAdaptive(false);
+        assertEquals(policy.select(), AITier.FULL);
+    }
+
+    @Test
+    public void testLatencyPicksTier() {
+        AITierPolicy policy = new AITierPolicy(() -> 0);
+        policy.setReducedLatencyMillis(5);
+        policy.setHeuristicLatencyMillis(60000);
+        policy.setLatencySmoothing(1);
+
+        policy.decide(AITierPolicy.Decision.CARD, tier -> sleep(20));
+        assertEquals(policy.select(), AITier.REDUCED);
+
+        // Discards do not count towards the latency
+        policy.decide(AITierPolicy.Decision.DISCARD, tier -> 0);
+        assertEquals(policy.select(), AITier.REDUCED);
+
+        // A fast decision brings the latency back down
+        policy.decide(AITierPolicy.Decision.CARD, tier -> 0);
+        assertEquals(policy.select(), AITier.FULL);
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        AITierPolicy policy = new AITierPolicy(() -> 0);
+        assertThrows(IllegalArgumentException.class, () -> policy.setReducedQueueDepth(0));
+        assertThrows(IllegalArgumentException.class, () -> policy.setReducedIterations(0));
+        assertThrows(IllegalArgumentException.class, () -> policy.setReducedDiscardDeadline(-1));
+        assertThrows(IllegalArgumentException.class, () -> policy.setLatencySmoothing(0));
+    }
+
+    @Test
+    public void testGreedyPlaysForPoints() {
+        setupRound(AI_ID);
+        man.setHand(USER_ID, hand(new Card(Suit.SPADE, Rank.TEN),
+                new Card(Suit.SPADE, Rank.ACE), new Card(Suit.SPADE, Rank.TWO),
+                new Card(Suit.SPADE, Rank.THREE)));
+        man.setHand(AI_ID, hand(new Card(Suit.HEART, Rank.KING),
+                new Card(Suit.HEART, Rank.FIVE), new Card(Suit.CLUB, Rank.TWO),
+                new Card(Suit.DIAMOND, Rank.NINE)));
+        man.playCard(USER_ID, new Card(Suit.SPADE, Rank.TEN));
+
+        GreedyPlayer player = new GreedyPlayer(man, AI_ID);
+        assertEquals(player.chooseCard(), new Card(Suit.HEART, Rank.FIVE));
+
+        // Looking the card up does not change the game
+        assertEquals(man.count(), 10);
+        assertEquals(man.viewHand(AI_ID).size(), 4);
+    }
+
+    @Test
+    public void testGreedyAvoidsFive() {
+        setupRound(USER_ID);
+        man.setHand(AI_ID, hand(new Card(Suit.HEART, Rank.ACE),
+                new Card(Suit.HEART, Rank.TWO), new Card(Suit.CLUB, Rank.FOUR),
+                new Card(Suit.DIAMOND, Rank.FIVE)));
+        man.setNextPlayer(AI_ID);
+
+        GreedyPlayer player = new GreedyPlayer(man, AI_ID);
+        assertEquals(player.chooseCard(), new Card(Suit.CLUB, Rank.FOUR));
+    }
+
+    @Test
+    public void testSmartPlayerFallsBackUnderLoad() {
+        setupRound(AI_ID);
+        man.setHand(USER_ID, hand(new Card(Suit.SPADE, Rank.TEN),
+                new Card(Suit.SPADE, Rank.ACE), new Card(Suit.SPADE, Rank.TWO),
+                new Card(Suit.SPADE, Rank.THREE)));
+        man.setHand(AI_ID, hand(new Card(Suit.HEART, Rank.KING),
+                new Card(Suit.HEART, Rank.FIVE), new Card(Suit.CLUB, Rank.TWO),
+                new Card(Suit.DIAMOND, Rank.NINE)));
+        man.playCard(USER_ID, new Card(Suit.SPADE, Rank.TEN));
+
+        // Enough work is queued that no search is run at all
+        AITierPolicy policy = new AITierPolicy(() -> 100);
+        SmartPlayer player = new SmartPlayer(man, AI_ID);
+        player.setTierPolicy(policy);
+        assertEquals(player.chooseCard(), new Card(Suit.HEART, Rank.FIVE));
+
+        CribbageHand dealt = hand(new Card(Suit.HEART, Rank.FIVE),
+                new Card(Suit.CLUB, Rank.FIVE), new Card(Suit.DIAMOND, Rank.FIVE),
+                new Card(Suit.SPADE, Rank.JACK), new Card(Suit.HEART, Rank.KING),
+                new Card(Suit.CLUB, Rank.ACE));
+        CribbageHand keep = player.choosePlayingHand(dealt, true);
+        assertEquals(keep.size(), 4);
+        assertTrue(dealt.getCards().containsAll(keep.getCards()));
+
+        // The reduced tier still searches, with the smaller budget
+        policy.setHeuristicQueueDepth(1000);
+        policy.setReducedIterations(100);
+        assertNotNull(player.chooseCard());
+    }
+
+    // Deals a round with the given dealer and moves on to the pegging stage
+    private void setupRound(int dealerId) {
+        man = new CribbageManagerTest();
+        man.setBackgroundPlayingHands(false);
+        man.setDealer(dealerId);
+        man.dealHands();
+        for (int pid = 0; pid < man.numPlayers(); pid++) {
+            while (man.viewHand(pid).size() > 4) {
+                man.sendCardToCrib(pid, man.viewHand(pid).get(0));
+            }
+        }
+        man.pickStarterCard();
+    }
+
+    private static CribbageHand hand(Card... cards) {
+        CribbageHand hand = new CribbageHand();
+        for (Card card : cards) {
+            hand.addCard(card);
+        }
+        return hand;
+    }
+
+    private static int sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
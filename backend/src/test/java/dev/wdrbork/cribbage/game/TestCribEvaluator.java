@@ -0,0 +1,135 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.CribbageScoring;
+import dev.wdrbork.cribbage.logic.game.ai.CribEvaluator;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+public class TestCribEvaluator {
+    private static final double EPSILON = 1e-9;
+    private static final int TRIALS = 3;
+
+    @Test
+    public void testCribMatchesFullEnumeration() {
+        for (int i = 0; i < TRIALS; i++) {
+            StandardDeck deck = new StandardDeck(true);
+            CribbageHand dealt = new CribbageHand();
+            for (int j = 0; j < 6; j++) {
+                dealt.addCard(deck.takeTopCard());
+            }
+
+            long seen = CardMask.maskOf(dealt);
+            Card first = dealt.getCard(0);
+            Card second = dealt.getCard(1);
+            double expected = enumerateCrib(seen, first, second);
+            double actual = CribEvaluator.expectedCribScore(seen, 
+                    CardMask.indexOf(first), CardMask.indexOf(second));
+            assertEquals(expected, actual, EPSILON, dealt.toString());
+        }
+    }
+
+    @Test
+    public void testSuitedJackDiscard() {
+        // Suited discards with a jack exercise both the flush and nobs terms
+        CribbageHand dealt = new CribbageHand();
+        dealt.addCard(new Card(Suit.HEART, Rank.JACK));
+        dealt.addCard(new Card(Suit.HEART, Rank.FIVE));
+        dealt.addCard(new Card(Suit.CLUB, Rank.TWO));
+        dealt.addCard(new Card(Suit.SPADE, Rank.NINE));
+        dealt.addCard(new Card(Suit.DIAMOND, Rank.KING));
+        dealt.addCard(new Card(Suit.CLUB, Rank.SEVEN));
+
+        long seen = CardMask.maskOf(dealt);
+        Card first = dealt.getCard(0);
+        Card second = dealt.getCard(1);
+        assertEquals(enumerateCrib(seen, first, second), 
+                CribEvaluator.expectedCribScore(seen, CardMask.indexOf(first), 
+                        CardMask.indexOf(second)), 
+                EPSILON);
+    }
+
+    @Test
+    public void testHandMatchesFullEnumeration() {
+        StandardDeck deck = new StandardDeck(true);
+        CribbageHand dealt = new CribbageHand();
+        for (int j = 0; j < 6; j++) {
+            dealt.addCard(deck.takeTopCard());
+        }
+
+        CribbageHand hand = new CribbageHand(dealt);
+        hand.removeCard(dealt.getCard(4));
+        hand.removeCard(dealt.getCard(5));
+
+        long seen = CardMask.maskOf(dealt);
+        double total = 0;
+        int starters = 0;
+        for (Card starter : new StandardDeck().getCards()) {
+            if (dealt.contains(starter)) continue;
+            total += score(hand, starter, false);
+            starters++;
+        }
+
+        assertEquals(total / starters, CribEvaluator.expectedHandScore(seen, 
+                CardMask.indicesOf(hand)), EPSILON);
+    }
+
+    @Test
+    public void testChoosePlayingHand() {
+        for (int numPlayers = 2; numPlayers <= 3; numPlayers++) {
+            CribbageManager game = new CribbageManager(numPlayers);
+            SmartPlayer ai = new SmartPlayer(game, 1);
+            game.setDealer(1);
+            game.dealHands();
+
+            CribbageHand dealt = game.getHand(1);
+            CribbageHand playingHand = ai.choosePlayingHand();
+            assertEquals(playingHand.size(), 4);
+            for (Card card : playingHand.getCards()) {
+                assertTrue(dealt.contains(card));
+            }
+        }
+    }
+
+    // Scores every possible crib and starter card one card at a time
+    private double enumerateCrib(long seen, Card first, Card second) {
+        Card[] unseen = new Card[CardMask.NUM_CARDS - Long.bitCount(seen)];
+        int n = 0;
+        for (int idx = 0; idx < CardMask.NUM_CARDS; idx++) {
+            if ((seen & CardMask.bit(idx)) == 0) {
+                unseen[n++] = CardMask.cardAt(idx);
+            }
+        }
+
+        double total = 0;
+        long outcomes = 0;
+        CribbageHand crib = new CribbageHand();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                crib.clearDeck();
+                crib.addCard(first);
+                crib.addCard(second);
+                crib.addCard(unseen[i]);
+                crib.addCard(unseen[j]);
+                for (int k = 0; k < n; k++) {
+                    if (k == i || k == j) continue;
+                    total += score(crib, unseen[k], true);
+                    outcomes++;
+                }
+            }
+        }
+
+        return total / outcomes;
+    }
+
+    private int score(CribbageHand hand, Card starter, boolean isCrib) {
+        return CribbageScoring.count15Combos(hand, starter)
+                + CribbageScoring.countRuns(hand, starter)
+                + CribbageScoring.countPairs(hand, starter)
+                + CribbageScoring.countFlush(hand, starter, isCrib)
+                + CribbageScoring.countNobs(hand, starter);
+    }
+}
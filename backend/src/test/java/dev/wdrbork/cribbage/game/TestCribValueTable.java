@@ -0,0 +1,97 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.CribValueTable;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+public class TestCribValueTable {
+    private static final int ACE = 0;
+    private static final int FIVE = 4;
+    private static final int KING = 12;
+
+    @Test
+    public void testDefaultTable() {
+        CribValueTable table = CribValueTable.getDefault();
+        assertNotNull(table);
+
+        // A pair of fives is one of the best possible discards, while an 
+        // offsuit ace and king is one of the worst
+        for (boolean isDealer : new boolean[] { true, false }) {
+            assertTrue(table.getValue(FIVE, FIVE, false, isDealer) 
+                    > table.getValue(ACE, KING, false, isDealer));
+            assertTrue(table.getValue(FIVE, isDealer) 
+                    > table.getValue(KING, isDealer));
+        }
+
+        // Opponents throw better cards into their own crib
+        assertTrue(table.getValue(FIVE, FIVE, false, false) 
+                > table.getValue(FIVE, FIVE, false, true));
+
+        Card fiveClub = new Card(Suit.CLUB, Rank.FIVE);
+        Card fiveHeart = new Card(Suit.HEART, Rank.FIVE);
+        assertEquals(table.cribValue(fiveClub, fiveHeart, true), 
+                table.getValue(FIVE, FIVE, false, true));
+    }
+
+    @Test
+    public void testSuitedAtLeastOffsuit() {
+        // A suited discard can only add flushes to the crib
+        CribValueTable table = CribValueTable.getDefault();
+        for (boolean isDealer : new boolean[] { true, false }) {
+            for (int low = ACE; low <= KING; low++) {
+                for (int high = low + 1; high <= KING; high++) {
+                    double suited = table.getValue(low, high, true, isDealer);
+                    double offsuit = table.getValue(low, high, false, isDealer);
+                    assertTrue(suited >= offsuit, low + "," + high + "," 
+                            + isDealer + ": " + suited + " < " + offsuit);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        CribValueTable table = new CribValueTable();
+        table.setValue(KING, ACE, true, true, 4.25);
+        table.setValue(ACE, KING, false, false, 3.5);
+        table.setValue(FIVE, true, 6.125);
+        assertThrows(IllegalArgumentException.class, () -> {
+            table.setValue(FIVE, FIVE, true, true, 1.0);
+        });
+
+        StringWriter out = new StringWriter();
+        table.write(out);
+        CribValueTable copy = CribValueTable.read(new ByteArrayInputStream(
+                out.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(copy.getValue(ACE, KING, true, true), 4.25);
+        assertEquals(copy.getValue(ACE, KING, false, false), 3.5);
+        assertEquals(copy.getValue(ACE, KING, false, true), 0.0);
+        assertEquals(copy.getValue(FIVE, true), 6.125);
+    }
+
+    @Test
+    public void testSmartPlayerWithTable() {
+        for (int numPlayers = 2; numPlayers <= 3; numPlayers++) {
+            CribbageManager game = new CribbageManager(numPlayers);
+            SmartPlayer ai = new SmartPlayer(game, 1);
+            ai.setCribValueTable(CribValueTable.getDefault());
+            game.setDealer(0);
+            game.dealHands();
+
+            CribbageHand dealt = game.getHand(1);
+            CribbageHand playingHand = ai.choosePlayingHand();
+            assertEquals(playingHand.size(), 4);
+            for (Card card : playingHand.getCards()) {
+                assertTrue(dealt.contains(card));
+            }
+        }
+    }
+}
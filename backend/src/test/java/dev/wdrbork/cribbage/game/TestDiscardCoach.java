@@ -0,0 +1,85 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.ai.CribValueTable;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardCoach;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardSearch;
+import dev.wdrbork.cribbage.logic.game.ai.KeepEvaluation;
+
+public class TestDiscardCoach {
+    private static final int NUM_HANDS = 50;
+    private static final double EPSILON = 0.000001;
+
+    @Test
+    public void testMatchesSearch() {
+        DiscardCoach coach = new DiscardCoach(null, CribValueTable.getDefault());
+        DiscardSearch search = new DiscardSearch(null, CribValueTable.getDefault(), false);
+        for (int i = 0; i < NUM_HANDS; i++) {
+            CribbageHand dealt = deal(i % 2 == 0 ? 6 : 5);
+            boolean isDealer = i % 4 < 2;
+            List<KeepEvaluation> advice = coach.evaluate(dealt, isDealer);
+            List<KeepEvaluation> expected = search.search(dealt, isDealer, Long.MAX_VALUE);
+            assertEquals(advice.size(), expected.size());
+
+            // Every keep uses the dealt cards, and has the same value as 
+            // evaluating the dealt hand directly
+            for (KeepEvaluation keep : advice) {
+                assertEquals(keep.getKeep().size(), 4);
+                assertEquals(keep.getKeep().size() + keep.getDiscards().size(), dealt.size());
+                long keepMask = CardMask.maskOf(keep.getKeep());
+                assertEquals(keepMask & ~CardMask.maskOf(dealt), 0L);
+
+                KeepEvaluation match = null;
+                for (KeepEvaluation other : expected) {
+                    if (CardMask.maskOf(other.getKeep()) == keepMask) match = other;
+                }
+                assertNotNull(match);
+                assertEquals(keep.getHandValue(), match.getHandValue(), EPSILON);
+                assertEquals(keep.getCribValue(), match.getCribValue(), EPSILON);
+            }
+            for (int j = 1; j < advice.size(); j++) {
+                assertTrue(advice.get(j - 1).getValue() >= advice.get(j).getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testRelabeledSuitsShareCache() {
+        DiscardCoach coach = new DiscardCoach(null, CribValueTable.getDefault());
+        CribbageHand clubs = new CribbageHand();
+        CribbageHand hearts = new CribbageHand();
+        Rank[] ranks = { Rank.TWO, Rank.FIVE, Rank.FIVE, Rank.SEVEN, Rank.EIGHT, Rank.JACK };
+        Suit[] suits = { Suit.CLUB, Suit.CLUB, Suit.DIAMOND, Suit.CLUB, Suit.CLUB, Suit.SPADE };
+        Suit[] relabeled = { Suit.HEART, Suit.HEART, Suit.CLUB, Suit.HEART, Suit.HEART, Suit.DIAMOND };
+        for (int i = 0; i < ranks.length; i++) {
+            clubs.addCard(new Card(suits[i], ranks[i]));
+            hearts.addCard(new Card(relabeled[i], ranks[i]));
+        }
+
+        List<KeepEvaluation> first = coach.evaluate(clubs, true);
+        List<KeepEvaluation> second = coach.evaluate(hearts, true);
+        assertEquals(coach.cache().size(), 1);
+        assertEquals(coach.cache().hits(), 1);
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(second.get(i).getValue(), first.get(i).getValue(), EPSILON);
+            assertTrue(hearts.getCards().containsAll(second.get(i).getKeep().getCards()));
+        }
+
+        assertThrows(IllegalArgumentException.class, 
+                () -> coach.evaluate(new CribbageHand(), false));
+    }
+
+    private static CribbageHand deal(int size) {
+        StandardDeck deck = new StandardDeck(true);
+        CribbageHand hand = new CribbageHand();
+        for (int i = 0; i < size; i++) {
+            hand.addCard(deck.takeTopCard());
+        }
+        return hand;
+    }
+}
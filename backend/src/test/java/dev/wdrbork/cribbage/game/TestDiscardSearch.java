@@ -0,0 +1,114 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.ai.CribEvaluator;
+import dev.wdrbork.cribbage.logic.game.ai.CribValueTable;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardSearch;
+import dev.wdrbork.cribbage.logic.game.ai.KeepEvaluation;
+
+public class TestDiscardSearch {
+    private static final int NUM_HANDS = 50;
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    // Long enough to refine some keeps of a hand, but usually not all
+    private static final long PARTIAL_DEADLINE = 2_000_000;
+    private static final double EPSILON = 0.000001;
+
+    @Test
+    public void testExpiredDeadlineStillEvaluatesEveryKeep() {
+        DiscardSearch search = new DiscardSearch(null, CribValueTable.getDefault(), true);
+        for (int i = 0; i < NUM_HANDS; i++) {
+            CribbageHand dealt = deal(6);
+            List<KeepEvaluation> keeps = search.search(dealt, i % 2 == 0, System.nanoTime());
+            assertEquals(keeps.size(), 15);
+            for (KeepEvaluation keep : keeps) {
+                assertEquals(keep.getKeep().size(), 4);
+                assertEquals(keep.getDiscards().size(), 2);
+            }
+            assertSorted(keeps);
+        }
+    }
+
+    @Test
+    public void testRefinementMatchesExactValues() {
+        DiscardSearch search = new DiscardSearch(null, CribValueTable.getDefault(), true);
+        for (int i = 0; i < NUM_HANDS; i++) {
+            CribbageHand dealt = deal(i % 2 == 0 ? 6 : 5);
+            long seen = CardMask.maskOf(dealt);
+            List<KeepEvaluation> keeps = search.search(dealt, i % 4 < 2,
+                    System.nanoTime() + NO_DEADLINE);
+            assertEquals(keeps.size(), dealt.size() == 6 ? 15 : 5);
+            for (KeepEvaluation keep : keeps) {
+                assertTrue(keep.isExact());
+                assertEquals(keep.getCribValue(), CribEvaluator.expectedCribScore(
+                        seen, CardMask.indicesOf(keep.getDiscards())), EPSILON);
+                assertEquals(keep.getHandValue(), CribEvaluator.expectedHandScore(
+                        seen, CardMask.indicesOf(keep.getKeep())), EPSILON);
+            }
+            assertSorted(keeps);
+        }
+    }
+
+    @Test
+    public void testPartialRefinementKeepsEstimatedOrder() {
+        CribValueTable table = CribValueTable.getDefault();
+        DiscardSearch search = new DiscardSearch(null, table, true);
+        for (int i = 0; i < NUM_HANDS; i++) {
+            CribbageHand dealt = deal(6);
+            boolean ownsCrib = i % 2 == 0;
+            List<KeepEvaluation> keeps = search.search(dealt, ownsCrib,
+                    System.nanoTime() + PARTIAL_DEADLINE);
+
+            // Refined keeps come first, ordered by their exact values, and 
+            // the rest stay in the order of their estimates
+            int refined = 0;
+            while (refined < keeps.size() && keeps.get(refined).isExact()) {
+                refined++;
+            }
+            assertSorted(keeps.subList(0, refined));
+            assertSorted(keeps.subList(refined, keeps.size()));
+            for (KeepEvaluation keep : keeps.subList(refined, keeps.size())) {
+                assertFalse(keep.isExact());
+            }
+        }
+    }
+
+    @Test
+    public void testEstimatesWithoutRefinement() {
+        CribValueTable table = CribValueTable.getDefault();
+        DiscardSearch search = new DiscardSearch(null, table, false);
+        CribbageHand dealt = deal(6);
+        for (KeepEvaluation keep : search.search(dealt, true, System.nanoTime() + NO_DEADLINE)) {
+            assertFalse(keep.isExact());
+            assertEquals(keep.getCribValue(), table.cribValue(
+                    CardMask.indicesOf(keep.getDiscards()), true), EPSILON);
+        }
+    }
+
+    @Test
+    public void testSmallHandRejected() {
+        DiscardSearch search = new DiscardSearch(null, null, true);
+        assertThrows(IllegalArgumentException.class,
+                () -> search.search(deal(4), true, System.nanoTime()));
+    }
+
+    private static CribbageHand deal(int size) {
+        StandardDeck deck = new StandardDeck(true);
+        CribbageHand hand = new CribbageHand();
+        for (int i = 0; i < size; i++) {
+            hand.addCard(deck.takeTopCard());
+        }
+        return hand;
+    }
+
+    private static void assertSorted(List<KeepEvaluation> keeps) {
+        for (int i = 1; i < keeps.size(); i++) {
+            assertTrue(keeps.get(i - 1).getValue() >= keeps.get(i).getValue());
+        }
+    }
+}
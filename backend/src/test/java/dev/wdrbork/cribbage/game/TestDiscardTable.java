@@ -0,0 +1,128 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import dev.wdrbork.cribbage.logic.cards.*;
+import dev.wdrbork.cribbage.logic.game.ai.CribEvaluator;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardTable;
+import dev.wdrbork.cribbage.logic.game.ai.DiscardTableBuilder;
+import dev.wdrbork.cribbage.logic.game.ai.KeepEvaluation;
+
+public class TestDiscardTable {
+    private static final int TABLE_HANDS = 200;
+    private static final double EPSILON = 0.001;
+
+    @TempDir
+    static Path tempDir;
+
+    private static CribbageHand[] dealtHands;
+    private static DiscardTable table;
+
+    @BeforeAll
+    public static void buildTable() throws Exception {
+        dealtHands = new CribbageHand[TABLE_HANDS];
+        long[] canonicalHands = new long[TABLE_HANDS];
+        for (int i = 0; i < TABLE_HANDS; i++) {
+            StandardDeck deck = new StandardDeck(true);
+            dealtHands[i] = new CribbageHand();
+            for (int j = 0; j < DiscardTable.HAND_SIZE; j++) {
+                dealtHands[i].addCard(deck.takeTopCard());
+            }
+            canonicalHands[i] = CardMask.canonicalize(CardMask.maskOf(dealtHands[i]));
+        }
+
+        long[] sorted = Arrays.stream(canonicalHands).sorted().distinct().toArray();
+        Path path = tempDir.resolve("discard-table.bin");
+        DiscardTableBuilder.build(sorted, path);
+        table = DiscardTable.open(path);
+        assertEquals(table.size(), sorted.length);
+    }
+
+    @Test
+    public void testCanonicalForm() {
+        Random r = new Random();
+        for (CribbageHand hand : dealtHands) {
+            long mask = CardMask.maskOf(hand);
+            long canonical = CardMask.canonicalize(mask);
+            assertEquals(Long.bitCount(canonical), DiscardTable.HAND_SIZE);
+            assertEquals(CardMask.canonicalize(canonical), canonical);
+
+            // Relabeling the suits must not change the canonical form
+            int[] order = { 0, 1, 2, 3 };
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = r.nextInt(i + 1);
+                int temp = order[i];
+                order[i] = order[j];
+                order[j] = temp;
+            }
+            assertEquals(CardMask.canonicalize(CardMask.permuteSuits(mask, order)), 
+                    canonical);
+        }
+    }
+
+    @Test
+    public void testBestKeepMatchesEvaluator() {
+        for (CribbageHand dealt : dealtHands) {
+            for (boolean isDealer : new boolean[] { true, false }) {
+                List<KeepEvaluation> evaluations = table.evaluate(dealt, isDealer);
+                assertNotNull(evaluations);
+                assertEquals(evaluations.size(), DiscardTable.KEEPS);
+                Collections.sort(evaluations);
+                CribbageHand keep = evaluations.get(0).getKeep();
+                assertEquals(keep.size(), 4);
+                assertEquals(evaluate(dealt, keep, isDealer), 
+                        bestValue(dealt, isDealer), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testMissingHand() {
+        CribbageHand dealt = new CribbageHand();
+        for (int i = 0; i < 5; i++) {
+            dealt.addCard(new Card(Suit.CLUB, Card.getRankBasedOnValue(i + 1)));
+        }
+        assertNull(table.evaluate(dealt, true));
+
+        double[] handValues = new double[DiscardTable.KEEPS];
+        double[] cribValues = new double[DiscardTable.KEEPS];
+        assertFalse(table.lookup(-1L, handValues, cribValues));
+    }
+
+    // Finds the best value of any keep by evaluating all of them directly
+    private double bestValue(CribbageHand dealt, boolean isDealer) {
+        double best = -Double.MAX_VALUE;
+        for (int i = 0; i < dealt.size(); i++) {
+            for (int j = i + 1; j < dealt.size(); j++) {
+                CribbageHand keep = new CribbageHand(dealt);
+                keep.removeCard(dealt.getCard(i));
+                keep.removeCard(dealt.getCard(j));
+                best = Math.max(best, evaluate(dealt, keep, isDealer));
+            }
+        }
+        return best;
+    }
+
+    private double evaluate(CribbageHand dealt, CribbageHand keep, boolean isDealer) {
+        long seen = CardMask.maskOf(dealt);
+        Deck discards = new Deck();
+        for (Card card : dealt.getCards()) {
+            if (!keep.contains(card)) discards.addCard(card);
+        }
+
+        double handValue = CribEvaluator.expectedHandScore(seen, 
+                CardMask.indicesOf(keep));
+        double cribValue = CribEvaluator.expectedCribScore(seen, 
+                CardMask.indicesOf(discards));
+        return isDealer ? handValue + cribValue : handValue - cribValue;
+    }
+}
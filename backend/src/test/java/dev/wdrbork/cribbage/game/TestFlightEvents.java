@@ -0,0 +1,107 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.HandDistribution;
+import dev.wdrbork.cribbage.logic.game.ai.MCTSAgent;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+public class TestFlightEvents {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        List<RecordedEvent> events;
+        CribbageManager game;
+        Card chosen;
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] { "AIDecision", "MCTSCandidate", 
+                    "DiscardEvaluation", "ScoringBatch", "GameCreated", "IllegalMove" }) {
+                recording.enable("dev.wdrbork.cribbage." + name).withoutThreshold();
+            }
+            recording.start();
+
+            game = new CribbageManager(2);
+            game.setBackgroundPlayingHands(false);
+            game.setRandom(new Random(3));
+            game.setDealer(0);
+            game.dealHands();
+            for (int pid = 0; pid < 2; pid++) {
+                CribbageHand keep = new SmartPlayer(game, pid)
+                        .choosePlayingHand(game.getHand(pid), pid == 0);
+                for (Card card : game.getHand(pid).getCards()) {
+                    if (!keep.contains(card)) game.sendCardToCrib(pid, card);
+                }
+            }
+            game.pickStarterCard();
+            HandDistribution.compute(CardMask.maskOf(game.getHand(0)), 0L, false);
+
+            int next = game.nextToPlayCard();
+            CribbageManager copy = new CribbageManager(game);
+            chosen = new MCTSAgent(game, next, 200).selectCard();
+            assertEquals(copy.id(), game.id());
+
+            int other = (next + 1) % 2;
+            assertThrows(IllegalArgumentException.class,
+                    () -> game.playCard(other, game.getHand(other).getCard(0)));
+            recording.stop();
+
+            Path file = tempDir.resolve("events.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        List<RecordedEvent> created = named(events, "GameCreated");
+        assertEquals(created.stream().filter(e -> e.getLong("gameId") == game.id()).count(), 1);
+
+        List<RecordedEvent> discards = named(events, "DiscardEvaluation");
+        assertEquals(discards.size(), 2);
+        assertEquals(discards.get(0).getInt("seat"), 0);
+        assertTrue(discards.get(0).getBoolean("dealer"));
+
+        List<RecordedEvent> batches = named(events, "ScoringBatch");
+        assertEquals(batches.size(), 1);
+        assertEquals(batches.get(0).getInt("starters"), 48);
+
+        List<RecordedEvent> decisions = named(events, "AIDecision");
+        assertEquals(decisions.size(), 1);
+        RecordedEvent decision = decisions.get(0);
+        assertEquals(decision.getLong("gameId"), game.id());
+        assertEquals(decision.getInt("iterations"), 200);
+        assertTrue(decision.getInt("treeSize") > 0);
+        assertEquals(decision.getString("chosenCard"), chosen.toString());
+        assertFalse(named(events, "MCTSCandidate").isEmpty());
+
+        List<RecordedEvent> illegal = named(events, "IllegalMove");
+        assertEquals(illegal.size(), 1);
+        assertEquals(illegal.get(0).getString("move"), "playCard");
+        assertEquals(illegal.get(0).getString("reason"), "Not this player's turn");
+        assertTrue(illegal.get(0).getString("state").contains("count=0"));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matches = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("dev.wdrbork.cribbage." + name)) {
+                matches.add(event);
+            }
+        }
+        return matches;
+    }
+}
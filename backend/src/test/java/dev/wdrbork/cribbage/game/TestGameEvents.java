@@ -0,0 +1,143 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.GameEvent;
+import dev.wdrbork.cribbage.logic.game.GameEventLog;
+
+public class TestGameEvents {
+    @Test
+    public void testEventsRecorded() {
+        CribbageManager man = new CribbageManager(2);
+        man.setBackgroundPlayingHands(false);
+        assertNull(man.eventLog());
+        man.recordEvents(64);
+        man.setDealer(0);
+        long dealt = man.version();
+        man.dealHands();
+
+        List<GameEvent> events = man.eventLog().since(dealt);
+        assertEquals(events.size(), 12);
+        for (GameEvent event : events) {
+            assertEquals(event.type(), GameEvent.Type.CARD_DEALT);
+            assertTrue(man.viewHand(event.pid()).contains(event.card()));
+        }
+
+        for (int pid = 0; pid < 2; pid++) {
+            man.sendCardToCrib(pid, man.viewHand(pid).get(0));
+            man.sendCardToCrib(pid, man.viewHand(pid).get(0));
+        }
+        man.pickStarterCard();
+
+        long beforePlay = man.version();
+        int pid = man.nextToPlayCard();
+        Card card = man.viewHand(pid).get(0);
+        int[] points = man.playCard(pid, card);
+        events = man.eventLog().since(beforePlay);
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).type(), GameEvent.Type.CARD_PLAYED);
+        assertEquals(events.get(0).pid(), pid);
+        assertEquals(events.get(0).card(), card);
+        assertEquals(events.get(0).points(), points[0]);
+        assertArrayEquals(events.get(0).categories(), points);
+        assertEquals(events.get(0).version(), man.version());
+        assertTrue(man.eventLog().since(man.version()).isEmpty());
+
+        // Copies used for searching do not record events
+        assertNull(new CribbageManager(man).eventLog());
+
+        // Undoing a move cannot be described by events
+        int mark = man.mark();
+        man.setNextPlayer(pid);
+        man.unmakeTo(mark);
+        assertNull(man.eventLog().since(beforePlay));
+    }
+
+    @Test
+    public void testRingBuffer() {
+        GameEventLog log = new GameEventLog(4, 10);
+        assertTrue(log.since(10).isEmpty());
+        assertNull(log.since(9));
+        for (long version = 11; version <= 16; version++) {
+            log.append(new GameEvent(GameEvent.Type.COUNT_RESET, version, -1, null, 0));
+        }
+
+        // Events up to version 12 have been overwritten
+        assertEquals(log.size(), 4);
+        assertNull(log.since(11));
+        assertEquals(log.since(12).size(), 4);
+        assertEquals(log.since(14).size(), 2);
+        assertEquals(log.since(14).get(0).version(), 15);
+
+        log.append(new GameEvent(GameEvent.Type.RESYNC, 17, -1, null, 0));
+        log.append(new GameEvent(GameEvent.Type.COUNT_RESET, 18, -1, null, 0));
+        assertNull(log.since(16));
+        assertEquals(log.since(17).size(), 1);
+    }
+
+    @Test
+    public void testListeners() {
+        CribbageManager man = new CribbageManager(2);
+        man.setBackgroundPlayingHands(false);
+        man.setRandom(new Random(7));
+        man.recordEvents(16);
+        List<GameEvent> heard = new ArrayList<GameEvent>();
+        man.eventLog().addListener(heard::add);
+
+        // Listeners hear every event, even ones the buffer has dropped
+        man.setDealer(0);
+        int rounds = 0;
+        while (!man.gameOver()) {
+            man.dealHands();
+            for (int pid = 0; pid < 2; pid++) {
+                man.sendCardToCrib(pid, man.viewHand(pid).get(0));
+                man.sendCardToCrib(pid, man.viewHand(pid).get(0));
+            }
+            man.pickStarterCard();
+            for (int pid = 0; pid < 2 && !man.gameOver(); pid++) {
+                man.countHand(pid, true);
+            }
+            if (!man.gameOver()) {
+                man.countCrib();
+            }
+            man.clearRoundState();
+            rounds++;
+        }
+        assertTrue(rounds > 1);
+        assertEquals(heard.get(0).type(), GameEvent.Type.DEALER_SET);
+        assertEquals(heard.get(heard.size() - 1).type(), GameEvent.Type.ROUND_CLEARED);
+        assertTrue(heard.size() > man.eventLog().capacity());
+
+        // The game ends exactly once, right after the points that won it
+        int gameOver = -1;
+        for (int i = 0; i < heard.size(); i++) {
+            if (heard.get(i).type() == GameEvent.Type.GAME_OVER) {
+                assertEquals(gameOver, -1);
+                gameOver = i;
+            }
+        }
+        assertTrue(gameOver > 0);
+        GameEvent winner = heard.get(gameOver);
+        assertTrue(man.isWinner(winner.pid()));
+        assertEquals(heard.get(gameOver - 1).pid(), winner.pid());
+        assertTrue(heard.get(gameOver - 1).points() > 0);
+        assertEquals(winner.version(), heard.get(gameOver - 1).version());
+
+        List<GameEvent> removed = new ArrayList<GameEvent>();
+        Consumer<GameEvent> listener = removed::add;
+        man.eventLog().addListener(listener);
+        man.eventLog().removeListener(listener);
+        int before = heard.size();
+        man.setNextPlayer(0);
+        assertEquals(heard.size(), before + 1);
+        assertTrue(removed.isEmpty());
+    }
+}
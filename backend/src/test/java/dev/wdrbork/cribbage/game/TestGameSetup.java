@@ -3,6 +3,7 @@ package dev.wdrbork.cribbage.game;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -73,6 +74,112 @@ public class TestGameSetup {
         assertEquals(man.getPlayerScore(PLAYER_ONE_ID), 2);
     }
 
+    @Test
+    public void testAIPlayingHandsChosen() {
+        for (int numPlayers = 2; numPlayers <= 3; numPlayers++) {
+            man = new CribbageManager(numPlayers);
+            man.setDealer(PLAYER_ONE_ID);
+            for (int i = 0; i < SETUP_TRIALS / 10; i++) {
+                man.dealHands();
+                List<CribbageHand> dealt = man.getAllHands();
+                CribbageHand playerHand = man.getHand(PLAYER_ONE_ID);
+                for (int j = 4; j < playerHand.size(); j++) {
+                    man.sendCardToCrib(PLAYER_ONE_ID, playerHand.getCard(j));
+                }
+
+                List<Card> cribCards = man.chooseAIPlayingHands();
+                // One AI discards two cards, or two AIs discard one card each
+                assertEquals(cribCards.size(), 2);
+                assertEquals(man.getCrib().size(), 4);
+                for (int pid = 1; pid < numPlayers; pid++) {
+                    assertEquals(man.getHand(pid).size(), 4);
+                    assertTrue(dealt.get(pid).getCards().containsAll(
+                            man.getHand(pid).getCards()));
+                }
+
+                man.clearRoundState();
+            }
+        }
+    }
+
+    @Test
+    public void testAIPlayingHandsUnderLoad() {
+        // Deal more games than there are AI threads, so that most of the 
+        // background choices are still queued when they are collected
+        int games = 4 * Runtime.getRuntime().availableProcessors();
+        List<CribbageManager> busy = new ArrayList<CribbageManager>();
+        for (int i = 0; i < games; i++) {
+            CribbageManager game = new CribbageManager(2);
+            game.setDealer(PLAYER_ONE_ID);
+            game.dealHands();
+            busy.add(game);
+        }
+
+        for (CribbageManager game : busy) {
+            List<Card> cribCards = game.chooseAIPlayingHands();
+            assertEquals(cribCards.size(), 2);
+            assertEquals(game.getHand(1).size(), 4);
+        }
+    }
+
+    @Test
+    public void testReadOnlyViews() {
+        man = new CribbageManager(2);
+        man.setDealer(PLAYER_ONE_ID);
+        man.dealHands();
+
+        List<Card> hand = man.viewHand(PLAYER_ONE_ID);
+        List<Card> crib = man.viewCrib();
+        assertEquals(hand, man.getHand(PLAYER_ONE_ID).getCards());
+        assertThrows(UnsupportedOperationException.class, () -> {
+            hand.remove(0);
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            man.viewPlayedCards(PLAYER_ONE_ID).add(hand.get(0));
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            man.viewHand(PLAYER_THREE_ID);
+        });
+
+        // Views reflect later changes to the game
+        Card discard = hand.get(0);
+        assertTrue(man.cardInAnyHand(discard));
+        man.sendCardToCrib(PLAYER_ONE_ID, discard);
+        assertEquals(hand.size(), 5);
+        assertEquals(crib.size(), 1);
+        assertFalse(man.cardInAnyHand(discard));
+    }
+
+    @Test
+    public void testStateVersion() {
+        man = new CribbageManager(2);
+        long version = man.version();
+        man.setDealer(PLAYER_ONE_ID);
+        assertTrue(man.version() > version);
+
+        version = man.version();
+        man.dealHands();
+        assertTrue(man.version() > version);
+
+        // Reading the game does not change it
+        version = man.version();
+        man.getAllHands();
+        man.getPlayedCards();
+        man.movePossible();
+        man.roundOver();
+        assertEquals(man.version(), version);
+
+        int mark = man.mark();
+        man.sendCardToCrib(PLAYER_ONE_ID, man.viewHand(PLAYER_ONE_ID).get(0));
+        assertTrue(man.version() > version);
+
+        // Undoing a move is also a change
+        version = man.version();
+        man.unmakeTo(mark);
+        assertTrue(man.version() > version);
+        assertEquals(new CribbageManager(man).version(), man.version());
+    }
+
     private void setupGame(int numPlayers) {
         List<CribbageHand> hands = man.dealHands();
         assertThrows(UnsupportedOperationException.class, () -> {
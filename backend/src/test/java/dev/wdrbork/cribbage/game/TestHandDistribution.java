@@ -0,0 +1,75 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.Rank;
+import dev.wdrbork.cribbage.logic.cards.Suit;
+import dev.wdrbork.cribbage.logic.game.HandDistribution;
+
+public class TestHandDistribution {
+    @Test
+    public void testMatchesScoring() {
+        CribbageHand hand = new CribbageHand();
+        hand.addCard(new Card(Suit.CLUB, Rank.FIVE));
+        hand.addCard(new Card(Suit.DIAMOND, Rank.FIVE));
+        hand.addCard(new Card(Suit.HEART, Rank.FIVE));
+        hand.addCard(new Card(Suit.SPADE, Rank.JACK));
+        long mask = CardMask.maskOf(hand);
+
+        HandDistribution distribution = HandDistribution.compute(mask, 0L, false);
+        assertEquals(distribution.starters(), 48);
+        assertEquals(distribution.max(), 29);
+        assertEquals(distribution.count(29), 1);
+
+        // Every starter gives the same score as counting the hand directly
+        int[] expected = new int[HandDistribution.MAX_SCORE + 1];
+        double total = 0;
+        for (int idx = 0; idx < CardMask.NUM_CARDS; idx++) {
+            if ((mask & CardMask.bit(idx)) != 0) continue;
+            int score = hand.countCribbageHand(CardMask.cardAt(idx), false)[0];
+            expected[score]++;
+            total += score;
+        }
+        assertArrayEquals(distribution.counts(), expected);
+        assertEquals(distribution.mean(), total / 48, 0.000001);
+        assertTrue(distribution.variance() > 0);
+        assertEquals(distribution.min(), 14);
+    }
+
+    @Test
+    public void testDeadCards() {
+        long hand = CardMask.bit(0) | CardMask.bit(1) | CardMask.bit(2) | CardMask.bit(3);
+        long dead = CardMask.bit(3) | CardMask.bit(20) | CardMask.bit(40);
+
+        HandDistribution distribution = HandDistribution.compute(hand, dead, true);
+        assertEquals(distribution.starters(), 46);
+        double probabilities = 0;
+        for (int score = 0; score <= HandDistribution.MAX_SCORE; score++) {
+            probabilities += distribution.probability(score);
+        }
+        assertEquals(probabilities, 1.0, 0.000001);
+        assertThrows(IllegalArgumentException.class,
+                () -> HandDistribution.of(CardMask.bit(0), 0L, false));
+    }
+
+    @Test
+    public void testCacheSharedAcrossSuits() {
+        // The same ranks in different suits score the same
+        long clubs = CardMask.bit(CardMask.indexOf(1, 0)) | CardMask.bit(CardMask.indexOf(2, 0))
+                | CardMask.bit(CardMask.indexOf(3, 0)) | CardMask.bit(CardMask.indexOf(4, 1));
+        long hearts = CardMask.bit(CardMask.indexOf(1, 2)) | CardMask.bit(CardMask.indexOf(2, 2))
+                | CardMask.bit(CardMask.indexOf(3, 2)) | CardMask.bit(CardMask.indexOf(4, 3));
+
+        HandDistribution first = HandDistribution.of(clubs, 0L, false);
+        long hits = HandDistribution.cache().hits();
+        HandDistribution second = HandDistribution.of(hearts, 0L, false);
+        assertSame(second, first);
+        assertEquals(HandDistribution.cache().hits(), hits + 1);
+        assertArrayEquals(first.counts(),
+                HandDistribution.compute(hearts, 0L, false).counts());
+    }
+}
@@ -0,0 +1,299 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import dev.wdrbork.cribbage.logic.cards.Card;
+import dev.wdrbork.cribbage.logic.cards.CribbageHand;
+import dev.wdrbork.cribbage.logic.cards.StandardDeck;
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.CribbagePegging;
+import dev.wdrbork.cribbage.logic.game.ai.MCTSAgent;
+import dev.wdrbork.cribbage.logic.game.ai.SmartPlayer;
+
+/**
+ * Runs short, fixed-seed engine workloads and fails if any of them
+ * allocates more per operation than the baseline in perf-baseline.json.
+ * Allocation does not depend on the machine, so it is checked on every
+ * build. Throughput does, so it is only checked against the baseline when
+ * asked for, and the baseline should be recorded on the machine that checks
+ * it:
+ *
+ *     mvn test -Dtest=TestPerformanceRegression -Dperf.gate=true
+ *     mvn test -Dtest=TestPerformanceRegression -Dperf.update=true
+ *
+ * The second command rewrites src/test/resources/perf-baseline.json with the
+ * measured values instead of comparing against them. perf.tolerance sets the
+ * allowed regression as a fraction of the baseline (default 0.3).
+ */
+public class TestPerformanceRegression {
+    private static final String BASELINE_RESOURCE = "/perf-baseline.json";
+    private static final Path BASELINE_SOURCE =
+            Path.of("src", "test", "resources", "perf-baseline.json");
+    private static final double DEFAULT_TOLERANCE = 0.3;
+    private static final long SEED = 20240101;
+
+    // Each workload is run repeatedly for at least this long so that it is
+    // compiled before it is measured, then measured this many times. The
+    // fastest measured round is used, since noise only ever slows it down
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final int MEASURED_ROUNDS = 5;
+
+    // Allocation this close to the baseline is never a regression, so that
+    // workloads that allocate next to nothing do not fail on a few bytes
+    private static final double ALLOCATION_SLACK = 64;
+
+    private static final int SCORING_HANDS = 20000;
+    private static final int PEGGING_STACKS = 20000;
+    private static final int DISCARD_DECISIONS = 50;
+    private static final long DISCARD_DEADLINE = 3_600_000;
+    private static final int MCTS_DECISIONS = 10;
+    private static final int MCTS_ITERATIONS = 5000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Map<String, Measurement> measured = new TreeMap<>();
+    private static Map<String, Measurement> baseline;
+    private static boolean update;
+    private static boolean gate;
+    private static double tolerance;
+
+    @BeforeAll
+    public static void loadBaseline() throws IOException {
+        update = Boolean.getBoolean("perf.update");
+        gate = Boolean.getBoolean("perf.gate");
+        tolerance = Double.parseDouble(System.getProperty("perf.tolerance",
+                String.valueOf(DEFAULT_TOLERANCE)));
+        baseline = new TreeMap<>();
+        try (InputStream in = TestPerformanceRegression.class
+                .getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in != null) {
+                baseline.putAll(MAPPER.readValue(in,
+                        MAPPER.getTypeFactory().constructMapType(
+                                TreeMap.class, String.class, Measurement.class)));
+            }
+        }
+    }
+
+    @AfterAll
+    public static void saveBaseline() throws IOException {
+        if (update && !measured.isEmpty()) {
+            baseline.putAll(measured);
+            Files.createDirectories(BASELINE_SOURCE.getParent());
+            MAPPER.writeValue(BASELINE_SOURCE.toFile(), baseline);
+        }
+    }
+
+    @Test
+    public void testScoring() {
+        Random random = new Random(SEED);
+        CribbageHand[] hands = new CribbageHand[SCORING_HANDS];
+        Card[] starters = new Card[SCORING_HANDS];
+        for (int i = 0; i < SCORING_HANDS; i++) {
+            StandardDeck deck = new StandardDeck();
+            deck.shuffle(random);
+            hands[i] = new CribbageHand();
+            for (int j = 0; j < 4; j++) {
+                hands[i].addCard(deck.takeTopCard());
+            }
+            starters[i] = deck.takeTopCard();
+        }
+
+        check("scoring", SCORING_HANDS, () -> {
+            int total = 0;
+            for (int i = 0; i < SCORING_HANDS; i++) {
+                total += hands[i].countCribbageHand(starters[i], false)[0];
+            }
+            return total;
+        });
+    }
+
+    @Test
+    public void testPegging() {
+        Random random = new Random(SEED);
+        List<LinkedList<Card>> stacks = new ArrayList<>();
+        for (int i = 0; i < PEGGING_STACKS; i++) {
+            StandardDeck deck = new StandardDeck();
+            deck.shuffle(random);
+            LinkedList<Card> stack = new LinkedList<>();
+            int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                stack.add(deck.takeTopCard());
+            }
+            stacks.add(stack);
+        }
+
+        check("pegging", PEGGING_STACKS, () -> {
+            int total = 0;
+            for (LinkedList<Card> stack : stacks) {
+                total += CribbagePegging.countPegRuns(stack);
+                total += CribbagePegging.countPegPairs(stack);
+            }
+            return total;
+        });
+    }
+
+    @Test
+    public void testDiscardDecisions() {
+        Random random = new Random(SEED);
+        CribbageManager game = new CribbageManager(2);
+        CribbageHand[] dealt = new CribbageHand[DISCARD_DECISIONS];
+        for (int i = 0; i < DISCARD_DECISIONS; i++) {
+            StandardDeck deck = new StandardDeck();
+            deck.shuffle(random);
+            dealt[i] = new CribbageHand();
+            for (int j = 0; j < 6; j++) {
+                dealt[i].addCard(deck.takeTopCard());
+            }
+        }
+
+        // Skip the discard table and give refinement all the time it needs, 
+        // so that every decision refines every keep with exact crib values
+        SmartPlayer player = new SmartPlayer(game, 0);
+        player.setDiscardTable(null);
+        player.setDiscardDeadline(DISCARD_DEADLINE);
+
+        check("discard", DISCARD_DECISIONS, () -> {
+            int total = 0;
+            for (int i = 0; i < DISCARD_DECISIONS; i++) {
+                total += player.choosePlayingHand(dealt[i], i % 2 == 0).size();
+            }
+            return total;
+        });
+    }
+
+    @Test
+    public void testMCTSDecisions() {
+        List<CribbageManager> games = new ArrayList<>();
+        for (int i = 0; i < MCTS_DECISIONS; i++) {
+            games.add(startOfPlay(SEED + i));
+        }
+
+        // A seeded search must make the same choices every time
+        for (int i = 0; i < MCTS_DECISIONS; i++) {
+            assertEquals(selectCard(games.get(i), i), selectCard(games.get(i), i));
+        }
+
+        check("mcts", MCTS_DECISIONS, () -> {
+            int total = 0;
+            for (int i = 0; i < MCTS_DECISIONS; i++) {
+                total += selectCard(games.get(i), i).getValue();
+            }
+            return total;
+        });
+    }
+
+    private static Card selectCard(CribbageManager game, int seed) {
+        MCTSAgent agent = new MCTSAgent(game, game.nextToPlayCard(), MCTS_ITERATIONS);
+        agent.setRandom(new Random(SEED + seed));
+        return agent.selectCard();
+    }
+
+    /**
+     * Measures the given workload and either records it or compares it
+     * against the baseline.
+     *
+     * @param name the name of the workload in the baseline file
+     * @param ops the number of operations one run of the workload performs
+     * @param workload runs the workload once, returning a value derived from
+     *                 its results so that the work cannot be optimized away
+     */
+    private void check(String name, int ops, Workload workload) {
+        Measurement result = measure(ops, workload);
+        measured.put(name, result);
+        System.out.println(String.format(Locale.ROOT,
+                "%-8s %12.1f ops/s %10.1f B/op", name, result.opsPerSecond,
+                result.bytesPerOp));
+        if (update) {
+            return;
+        }
+
+        Measurement expected = baseline.get(name);
+        assertNotNull(expected, "No baseline for " + name +
+                "; record one with -Dperf.update=true");
+        if (gate) {
+            assertTrue(result.opsPerSecond >= expected.opsPerSecond * (1 - tolerance),
+                    String.format(Locale.ROOT, "%s throughput regressed: %.1f ops/s, baseline %.1f",
+                            name, result.opsPerSecond, expected.opsPerSecond));
+        }
+        assertTrue(result.bytesPerOp <= expected.bytesPerOp * (1 + tolerance) + ALLOCATION_SLACK,
+                String.format(Locale.ROOT, "%s allocation regressed: %.1f B/op, baseline %.1f",
+                        name, result.bytesPerOp, expected.bytesPerOp));
+    }
+
+    private Measurement measure(int ops, Workload workload) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long sink = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            sink += workload.run();
+        }
+
+        long bestNanos = Long.MAX_VALUE;
+        long leastBytes = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            sink += workload.run();
+            long elapsed = System.nanoTime() - start;
+            long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+            bestNanos = Math.min(bestNanos, elapsed);
+            leastBytes = Math.min(leastBytes, bytes);
+        }
+        assertNotEquals(sink, Long.MIN_VALUE);
+
+        Measurement result = new Measurement();
+        result.opsPerSecond = ops / (bestNanos / 1e9);
+        result.bytesPerOp = (double) leastBytes / ops;
+        return result;
+    }
+
+    // Deals a round, sends each player's lowest cards to the crib and turns
+    // over the starter, leaving the game ready for the first card
+    private static CribbageManager startOfPlay(long seed) {
+        CribbageManager game = new CribbageManager(2);
+        game.setBackgroundPlayingHands(false);
+        game.setRandom(new Random(seed));
+        game.setDealer(0);
+        game.dealHands();
+        for (int pid = 0; pid < game.numPlayers(); pid++) {
+            List<Card> hand = game.viewHand(pid);
+            while (hand.size() > 4) {
+                game.sendCardToCrib(pid, hand.get(0));
+            }
+        }
+        game.pickStarterCard();
+        return game;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        int run();
+    }
+
+    /* Throughput and allocation of one workload, as stored in the baseline */
+    public static class Measurement {
+        public double opsPerSecond;
+        public double bytesPerOp;
+    }
+}
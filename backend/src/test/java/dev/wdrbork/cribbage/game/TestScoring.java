@@ -7,6 +7,7 @@ import java.util.List;
 
 import dev.wdrbork.cribbage.logic.cards.*;
 import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.CribbageScoreTable;
 import dev.wdrbork.cribbage.logic.game.CribbageScoring;
 
 public class TestScoring {
@@ -145,4 +146,28 @@ public class TestScoring {
         man.setHand(PLAYER_TWO_ID, playerTwoHand);
         assertEquals(man.countHand(PLAYER_TWO_ID, false)[0], 4);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testScoreTableMatchesScoring() {
+        StandardDeck deck = new StandardDeck();
+        for (int i = 0; i < TRIALS / 10; i++) {
+            deck.resetDeck();
+            deck.shuffle();
+            CribbageHand hand = new CribbageHand();
+            for (int j = 0; j < 4; j++) {
+                hand.addCard(deck.takeTopCard());
+            }
+            Card starter = deck.takeTopCard();
+            boolean isCrib = i % 2 == 0;
+
+            int expected = CribbageScoring.count15Combos(hand, starter)
+                    + CribbageScoring.countRuns(hand, starter)
+                    + CribbageScoring.countPairs(hand, starter)
+                    + CribbageScoring.countFlush(hand, starter, isCrib)
+                    + CribbageScoring.countNobs(hand, starter);
+            int actual = CribbageScoreTable.score(CardMask.indicesOf(hand), 
+                    CardMask.indexOf(starter), isCrib);
+            assertEquals(expected, actual, hand + " with starter " + starter);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import dev.wdrbork.cribbage.logic.cards.CardMask;
+import dev.wdrbork.cribbage.logic.game.CribbageScoreTable;
+import dev.wdrbork.cribbage.logic.sim.ScoringSweep;
+import dev.wdrbork.cribbage.logic.sim.ScoringSweepResult;
+
+public class TestScoringSweep {
+    // Only hands made of the highest cards are swept in the quick test
+    private static final int FROM_LOWEST_CARD = 36;
+
+    @Test
+    public void testLowestCardRange() {
+        ScoringSweep sweep = new ScoringSweep();
+        sweep.addScorer("NoNobs", TestScoringSweep::noNobs);
+        sweep.setLowestCardRange(FROM_LOWEST_CARD, CardMask.NUM_CARDS);
+        ScoringSweepResult result = sweep.run();
+
+        // Score the same hands one at a time with the reference scorer
+        long[] histogram = new long[ScoringSweepResult.MAX_SCORE + 1];
+        long hands = 0;
+        long nobs = 0;
+        int[] cards = new int[ScoringSweep.SCORED_CARDS];
+        int[] hand = new int[ScoringSweep.HAND_SIZE];
+        for (cards[0] = FROM_LOWEST_CARD; cards[0] < CardMask.NUM_CARDS; cards[0]++)
+        for (cards[1] = cards[0] + 1; cards[1] < CardMask.NUM_CARDS; cards[1]++)
+        for (cards[2] = cards[1] + 1; cards[2] < CardMask.NUM_CARDS; cards[2]++)
+        for (cards[3] = cards[2] + 1; cards[3] < CardMask.NUM_CARDS; cards[3]++)
+        for (cards[4] = cards[3] + 1; cards[4] < CardMask.NUM_CARDS; cards[4]++) {
+            for (int s = 0; s < ScoringSweep.SCORED_CARDS; s++) {
+                int h = 0;
+                for (int c = 0; c < ScoringSweep.SCORED_CARDS; c++) {
+                    if (c != s) hand[h++] = cards[c];
+                }
+                histogram[ScoringSweep.scoreWithCribbageScoring(hand, cards[s], false)]++;
+                nobs += CribbageScoreTable.nobsPoints(hand[0], hand[1], hand[2], 
+                        hand[3], cards[s]);
+                hands++;
+            }
+        }
+
+        assertEquals(result.hands(), hands);
+        for (int score = 0; score <= ScoringSweepResult.MAX_SCORE; score++) {
+            assertEquals(result.count(score), histogram[score]);
+        }
+        assertEquals(result.mismatches("CribbageScoreTable"), 0);
+        assertEquals(result.mismatches("NoNobs"), nobs);
+        assertTrue(nobs > 0);
+        assertNotNull(result.firstMismatch("NoNobs"));
+    }
+
+    // Scores every hand with the slow reference scorer, which takes a while, 
+    // so it only runs when asked for (see the pom)
+    @Test
+    @Tag("sweep")
+    public void testAllHands() {
+        ScoringSweep sweep = new ScoringSweep();
+
+        // NoNobs is wrong for 48 non-jack starters, each with C(50, 3) 
+        // choices for the other three cards
+        sweep.addScorer("NoNobs", TestScoringSweep::noNobs);
+        ScoringSweepResult result = sweep.run();
+
+        assertEquals(result.hands(), 2598960L * 5);
+        assertEquals(result.mismatches("CribbageScoreTable"), 0);
+        assertNull(result.firstMismatch("CribbageScoreTable"));
+        assertEquals(result.mismatches("NoNobs"), 48L * 19600);
+        assertNotNull(result.firstMismatch("NoNobs"));
+
+        // Well-known distribution of cribbage hand scores
+        assertEquals(result.maxScore(), 29);
+        assertEquals(result.count(29), 4);
+        assertEquals(result.count(28), 76);
+        assertEquals(result.count(0), 1009008);
+        assertEquals(result.count(2), 2813796);
+        assertEquals(result.count(4), 2855676);
+        for (int impossible : new int[] { 19, 25, 26, 27 }) {
+            assertEquals(result.count(impossible), 0);
+        }
+        assertEquals(result.averageScore(), 4.7692, 0.0001);
+        assertTrue(result.handsPerSecond("CribbageScoreTable") > 0);
+    }
+
+    // Forgets about nobs, so it is wrong whenever the hand has the jack of 
+    // the starter's suit
+    private static int noNobs(int[] hand, int starter, boolean isCrib) {
+        return CribbageScoreTable.score(hand, starter, isCrib) - 
+                CribbageScoreTable.nobsPoints(hand[0], hand[1], hand[2], hand[3], starter);
+    }
+
+    @Test
+    public void testDuplicateScorer() {
+        ScoringSweep sweep = new ScoringSweep();
+        assertThrows(IllegalArgumentException.class,
+                () -> sweep.addScorer("CribbageScoreTable", CribbageScoreTable::score));
+    }
+}
@@ -6,9 +6,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import dev.wdrbork.cribbage.logic.cards.*;
 import dev.wdrbork.cribbage.logic.game.CribbageManager;
 import dev.wdrbork.cribbage.logic.game.CribbagePegging;
+import dev.wdrbork.cribbage.logic.game.MoveResult;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 
 public class TestSecondStage {
@@ -670,6 +674,204 @@ public class TestSecondStage {
         assertTrue(man.gameOver());
     }
 
+    @Test
+    public void testUnmakeRestoresState() {
+        Random r = new Random();
+        for (int numPlayers = 2; numPlayers <= 3; numPlayers++) {
+            for (int trial = 0; trial < 20; trial++) {
+                man = new CribbageManagerTest(numPlayers);
+                man.setDealer(PLAYER_ONE_ID);
+                man.dealHands();
+                int mark = man.mark();
+                List<String> states = new ArrayList<String>();
+
+                while (man.getCrib().size() < 4) {
+                    for (int pid = 0; pid < numPlayers; pid++) {
+                        CribbageHand hand = man.getHand(pid);
+                        states.add(describeState());
+                        man.sendCardToCrib(pid, hand.getCard(r.nextInt(hand.size())));
+                    }
+                }
+
+                while (!man.roundOver()) {
+                    states.add(describeState());
+                    if (!man.movePossible()) {
+                        if (!man.countIs31()) {
+                            man.awardPointsForGo();
+                            states.add(describeState());
+                        }
+                        man.resetCount();
+                        continue;
+                    }
+
+                    int next = man.nextToPlayCard();
+                    List<Card> playable = new ArrayList<Card>();
+                    for (Card card : man.getHand(next).getCards()) {
+                        if (man.canPlayCard(card)) playable.add(card);
+                    }
+
+                    if (playable.isEmpty()) {
+                        man.setNextPlayer((next + 1) % numPlayers);
+                    } else {
+                        man.playCard(next, playable.get(r.nextInt(playable.size())));
+                    }
+                }
+
+                // Undo one move at a time, checking each intermediate state
+                for (int i = states.size() - 1; i >= 0; i--) {
+                    man.unmake();
+                    assertEquals(describeState(), states.get(i));
+                }
+                assertEquals(man.mark(), mark);
+            }
+        }
+
+        man = new CribbageManagerTest(2);
+        assertThrows(IllegalStateException.class, () -> man.unmake());
+        man.addCardToHand(PLAYER_ONE_ID, new Card(Suit.SPADE, Rank.ACE));
+        man.unmake();
+        assertTrue(man.getHand(PLAYER_ONE_ID).isEmpty());
+    }
+
+    @Test
+    public void testPlayableCardsTracked() {
+        Random r = new Random();
+        for (int numPlayers = 2; numPlayers <= 3; numPlayers++) {
+            for (int trial = 0; trial < 20; trial++) {
+                man = new CribbageManagerTest(numPlayers);
+                setupDecks(PLAYER_ONE_ID, numPlayers);
+                int mark = man.mark();
+
+                while (!man.roundOver()) {
+                    assertPlayableCardsMatch(numPlayers);
+                    if (!man.movePossible()) {
+                        if (!man.countIs31()) man.awardPointsForGo();
+                        man.resetCount();
+                        continue;
+                    }
+
+                    int next = man.nextToPlayCard();
+                    List<Card> playable = new ArrayList<Card>();
+                    for (Card card : man.viewHand(next)) {
+                        if (man.canPlayCard(card)) playable.add(card);
+                    }
+
+                    if (playable.isEmpty()) {
+                        man.setNextPlayer((next + 1) % numPlayers);
+                    } else {
+                        man.playCard(next, playable.get(r.nextInt(playable.size())));
+                    }
+                }
+
+                // Undoing the round and replacing a hand directly must not 
+                // leave stale results behind
+                man.unmakeTo(mark);
+                assertPlayableCardsMatch(numPlayers);
+                CribbageHand tens = new CribbageHand();
+                tens.addCard(new Card(Suit.SPADE, Rank.TEN));
+                tens.addCard(new Card(Suit.SPADE, Rank.JACK));
+                tens.addCard(new Card(Suit.SPADE, Rank.QUEEN));
+                tens.addCard(new Card(Suit.SPADE, Rank.KING));
+                man.setHand(PLAYER_ONE_ID, tens);
+                man.setCount(22);
+                assertPlayableCardsMatch(numPlayers);
+                assertFalse(man.hasPlayableCard(PLAYER_ONE_ID));
+            }
+        }
+    }
+
+    // Checks the tracked legality of each player against their hand
+    private void assertPlayableCardsMatch(int numPlayers) {
+        boolean anyPlayable = false;
+        for (int pid = 0; pid < numPlayers; pid++) {
+            boolean playable = false;
+            for (Card card : man.viewHand(pid)) {
+                if (!man.viewPlayedCards(pid).contains(card) 
+                        && card.getValue() + man.getCount() <= 31) {
+                    playable = true;
+                }
+            }
+            assertEquals(man.hasPlayableCard(pid), playable);
+            anyPlayable |= playable;
+        }
+        assertEquals(man.movePossible(), anyPlayable);
+    }
+
+    private String describeState() {
+        return man.getCount() + " " + man.getCardStack() + " " 
+                + Arrays.toString(man.getGameScores()) + " " 
+                + man.lastToPlayCard() + " " + man.nextToPlayCard() + " " 
+                + man.getAllHands() + " " + man.getPlayedCards() + " " 
+                + man.getCrib();
+    }
+
+    @Test
+    public void testTryPlayCard() {
+        man = new CribbageManagerTest(2);
+        setupDecks(PLAYER_TWO_ID, 2);
+
+        CribbageHand playerOneDeck = new CribbageHand();
+        playerOneDeck.addCard(new Card(Suit.SPADE, Rank.KING));
+        playerOneDeck.addCard(new Card(Suit.HEART, Rank.FIVE));
+        playerOneDeck.addCard(new Card(Suit.SPADE, Rank.SEVEN));
+        playerOneDeck.addCard(new Card(Suit.SPADE, Rank.SIX));
+        man.setHand(PLAYER_ONE_ID, playerOneDeck);
+
+        CribbageHand playerTwoDeck = new CribbageHand();
+        playerTwoDeck.addCard(new Card(Suit.DIAMOND, Rank.KING));
+        playerTwoDeck.addCard(new Card(Suit.DIAMOND, Rank.SEVEN));
+        playerTwoDeck.addCard(new Card(Suit.CLUB, Rank.FOUR));
+        playerTwoDeck.addCard(new Card(Suit.SPADE, Rank.FIVE));
+        man.setHand(PLAYER_TWO_ID, playerTwoDeck);
+
+        // Refused plays leave the game as it was
+        long version = man.version();
+        int[] points = new int[CribbageManager.ROUND_POINT_CATEGORIES];
+        assertEquals(man.tryPlayCard(3, playerOneDeck.getCard(0), points), 
+                MoveResult.INVALID_PLAYER);
+        assertEquals(man.tryPlayCard(PLAYER_ONE_ID, null, points), MoveResult.NO_CARD);
+        assertEquals(man.tryPlayCard(PLAYER_TWO_ID, playerTwoDeck.getCard(0), points), 
+                MoveResult.NOT_YOUR_TURN);
+        assertEquals(man.tryPlayCard(PLAYER_ONE_ID, playerTwoDeck.getCard(0), points), 
+                MoveResult.NOT_IN_HAND);
+        assertEquals(man.version(), version);
+
+        assertEquals(man.tryPlayCard(PLAYER_ONE_ID, playerOneDeck.getCard(0), points), 
+                MoveResult.OK);
+        assertEquals(man.getCount(), 10);
+        assertEquals(man.tryPlayCard(PLAYER_TWO_ID, playerTwoDeck.getCard(3), points), 
+                MoveResult.OK);
+        assertEquals(points[TOTAL_POINTS_IDX], 2);
+        assertEquals(man.tryPlayCard(PLAYER_ONE_ID, playerOneDeck.getCard(0), points), 
+                MoveResult.ALREADY_PLAYED);
+        man.setCount(28);
+        assertEquals(man.tryPlayCard(PLAYER_ONE_ID, playerOneDeck.getCard(1), points), 
+                MoveResult.EXCEEDS_31);
+        assertThrows(IllegalArgumentException.class, 
+                () -> man.playCard(PLAYER_ONE_ID, playerOneDeck.getCard(1)));
+        assertEquals(man.getCount(), 28);
+    }
+
+    @Test
+    public void testTrySendCardToCrib() {
+        man = new CribbageManagerTest(2);
+        man.setDealer(PLAYER_ONE_ID);
+        List<CribbageHand> hands = man.dealHands();
+        Card card = hands.get(PLAYER_ONE_ID).getCard(0);
+        assertEquals(man.trySendCardToCrib(PLAYER_TWO_ID, card), MoveResult.NOT_IN_HAND);
+        assertEquals(man.trySendCardToCrib(PLAYER_ONE_ID, card), MoveResult.OK);
+        assertTrue(man.getCrib().contains(card));
+        assertEquals(man.trySendCardToCrib(PLAYER_ONE_ID, card), MoveResult.NOT_IN_HAND);
+
+        man.sendCardToCrib(PLAYER_ONE_ID, hands.get(PLAYER_ONE_ID).getCard(1));
+        man.sendCardToCrib(PLAYER_TWO_ID, hands.get(PLAYER_TWO_ID).getCard(0));
+        man.sendCardToCrib(PLAYER_TWO_ID, hands.get(PLAYER_TWO_ID).getCard(1));
+        assertEquals(man.trySendCardToCrib(PLAYER_TWO_ID, 
+                hands.get(PLAYER_TWO_ID).getCard(2)), MoveResult.CRIB_FULL);
+        assertThrows(IllegalStateException.class, () -> man.sendCardToCrib(
+                PLAYER_TWO_ID, hands.get(PLAYER_TWO_ID).getCard(2)));
+    }
+
     // Assumes that all tests in TestGameSetup are passing
     private List<CribbageHand> setupDecks(int dealerId, int numPlayers) {
         man.setDealer(dealerId);
@@ -0,0 +1,43 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.PrintStream;
+
+import dev.wdrbork.cribbage.logic.game.ai.RandomPlayer;
+import dev.wdrbork.cribbage.logic.sim.SelfPlayResult;
+import dev.wdrbork.cribbage.logic.sim.SelfPlayRunner;
+
+public class TestSelfPlay {
+    private static final int TEST_GAMES = 200;
+
+    @Test
+    public void testRandomVersusRandom() {
+        PrintStream console = System.out;
+        SelfPlayRunner runner = new SelfPlayRunner(RandomPlayer::new, RandomPlayer::new);
+        SelfPlayResult result = runner.run(TEST_GAMES);
+        assertSame(System.out, console);
+
+        assertEquals(result.games(), TEST_GAMES);
+        assertEquals(result.wins(0) + result.wins(1), TEST_GAMES);
+        assertEquals(result.winRate(0) + result.winRate(1), 1.0, 0.000001);
+
+        // Nobody can reach 121 points in a single round
+        assertTrue(result.rounds() >= 2 * TEST_GAMES);
+        assertTrue(Math.abs(result.averageMargin()) <= 121);
+        assertTrue(result.gamesPerSecond() > 0);
+        for (int phase = 0; phase < SelfPlayResult.NUM_PHASES; phase++) {
+            assertTrue(result.phaseNanos(phase) > 0);
+        }
+    }
+
+    @Test
+    public void testSingleThread() {
+        SelfPlayRunner runner = new SelfPlayRunner(RandomPlayer::new, RandomPlayer::new);
+        runner.setThreads(1);
+        SelfPlayResult result = runner.run(10);
+        assertEquals(result.wins(0) + result.wins(1), 10);
+        assertThrows(IllegalArgumentException.class, () -> runner.setThreads(0));
+    }
+}
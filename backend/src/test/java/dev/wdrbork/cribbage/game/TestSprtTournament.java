@@ -0,0 +1,61 @@
+package dev.wdrbork.cribbage.game;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import dev.wdrbork.cribbage.logic.game.CribbageManager;
+import dev.wdrbork.cribbage.logic.game.ai.RandomPlayer;
+import dev.wdrbork.cribbage.logic.sim.SprtResult;
+import dev.wdrbork.cribbage.logic.sim.SprtTournament;
+
+public class TestSprtTournament {
+    private static final double EPSILON = 0.000001;
+
+    @Test
+    public void testSeededDealsRepeat() {
+        CribbageManager first = new CribbageManager(2);
+        CribbageManager second = new CribbageManager(2);
+        first.setRandom(new Random(121));
+        second.setRandom(new Random(121));
+        first.setDealer(0);
+        second.setDealer(0);
+        for (int round = 0; round < 5; round++) {
+            assertEquals(first.dealHands().toString(), second.dealHands().toString());
+            assertEquals(first.pickStarterCard(), second.pickStarterCard());
+            first.clearAllHands();
+            second.clearAllHands();
+        }
+    }
+
+    @Test
+    public void testLikelihoodRatio() {
+        assertEquals(SprtTournament.score(0), 0.5, EPSILON);
+        assertEquals(SprtTournament.elo(SprtTournament.score(35)), 35, EPSILON);
+
+        // No variation in the scores means there is no evidence either way
+        assertEquals(SprtTournament.llr(new long[] { 0, 50, 0 }, 0, 20), 0, EPSILON);
+
+        // Scores between the hypotheses favor the closer one, and scores 
+        // exactly halfway between them favor neither
+        double halfway = (SprtTournament.score(0) + SprtTournament.score(20)) / 2;
+        assertTrue(SprtTournament.llr(new long[] { 30, 40, 30 }, 0, 20) < 0);
+        assertTrue(SprtTournament.llr(new long[] { 20, 40, 40 }, 0, 20) > 0);
+        long wins = Math.round(1000 * (2 * halfway - 1));
+        assertEquals(SprtTournament.llr(new long[] { 1000, 0, 1000 + wins }, 0, 20) 
+                / 2000, 0, 0.001);
+    }
+
+    @Test
+    public void testEqualPlayersAcceptH0() {
+        SprtTournament tournament = new SprtTournament(RandomPlayer::new, RandomPlayer::new);
+        tournament.setHypotheses(0, 150);
+        tournament.setErrorRates(0.001, 0.001);
+        tournament.setSeed(121);
+        SprtResult result = tournament.run();
+        assertEquals(result.decision(), SprtResult.Decision.ACCEPT_H0);
+        assertTrue(result.llr() <= result.lowerBound());
+        assertEquals(result.games(), 2 * result.pairs());
+    }
+}